@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.2.0"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -28,6 +29,8 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.kafka:spring-kafka")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.3.0")
+    implementation("org.roaringbitmap:RoaringBitmap:1.0.1")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     compileOnly("org.projectlombok:lombok")
     runtimeOnly("org.postgresql:postgresql")
     annotationProcessor("org.projectlombok:lombok")
@@ -47,3 +50,98 @@ tasks.withType<Test> {
         showStandardStreams = true
     }
 }
+
+// Benchmarks live in src/jmh: ./gradlew jmh, or ./gradlew jmh -PjmhIncludes=Serialization for a subset
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt"))
+    // Allocation rate per operation next to throughput
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+val baselineFile = layout.projectDirectory.file("benchmarks/baseline.json")
+// Machine the baseline was recorded on; the JVM is already in each result (jdkVersion, vmName, jvmArgs)
+val baselineMachineFile = layout.projectDirectory.file("benchmarks/baseline-machine.json")
+
+fun machine(): Map<String, Any?> {
+    val cpuInfo = File("/proc/cpuinfo")
+    val cpu = if (cpuInfo.exists()) cpuInfo.readLines().firstOrNull { it.startsWith("model name") }?.substringAfter(":")?.trim() else null
+    return linkedMapOf(
+        "os" to "${System.getProperty("os.name")} ${System.getProperty("os.version")} ${System.getProperty("os.arch")}",
+        "cpu" to (cpu ?: "unknown"),
+        "cores" to Runtime.getRuntime().availableProcessors(),
+    )
+}
+
+tasks.register("jmhBaseline") {
+    description = "Records the last jmh run, and the machine it ran on, as the committed baseline"
+    doLast {
+        // A subset run would silently drop every other benchmark from the baseline
+        if (findProperty("jmhIncludes") != null) {
+            throw GradleException("Record the baseline from a full run: ./gradlew jmh jmhBaseline without -PjmhIncludes")
+        }
+        val results = jmhResults.get().asFile
+        if (!results.exists()) {
+            throw GradleException("No jmh results at $results; run ./gradlew jmh first")
+        }
+        results.copyTo(baselineFile.asFile, overwrite = true)
+        baselineMachineFile.asFile.writeText(groovy.json.JsonOutput.prettyPrint(groovy.json.JsonOutput.toJson(machine())) + "\n")
+    }
+}
+
+tasks.register("jmhCompare") {
+    description = "Compares the last jmh run with the committed baseline"
+    doLast {
+        @Suppress("UNCHECKED_CAST")
+        fun load(file: File): Map<String, Map<String, Any?>> =
+            (groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>).associateBy { run ->
+                val params = (run["params"] as Map<String, Any?>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" }
+                if (params == null) run["benchmark"] as String else "${run["benchmark"]}($params)"
+            }
+
+        @Suppress("UNCHECKED_CAST")
+        fun score(run: Map<String, Any?>?, metric: String?): Double? {
+            val result = if (metric == null) run?.get("primaryMetric")
+            else (run?.get("secondaryMetrics") as Map<String, Any?>?)?.get(metric)
+            return ((result as Map<String, Any?>?)?.get("score") as Number?)?.toDouble()
+        }
+
+        fun jvm(runs: Map<String, Map<String, Any?>>): String =
+            runs.values.firstOrNull()?.let { "${it["vmName"]} ${it["jdkVersion"]} ${it["jvmArgs"]}" } ?: "unknown"
+
+        val results = jmhResults.get().asFile
+        if (!results.exists()) {
+            throw GradleException("No jmh results at $results; run ./gradlew jmh first")
+        }
+        val current = load(results)
+        val baseline = if (baselineFile.asFile.exists()) load(baselineFile.asFile) else emptyMap()
+        if (baseline.isNotEmpty()) {
+            @Suppress("UNCHECKED_CAST")
+            val baselineMachine = if (baselineMachineFile.asFile.exists())
+                groovy.json.JsonSlurper().parse(baselineMachineFile.asFile) as Map<String, Any?> else emptyMap()
+            println("Baseline: $baselineMachine, ${jvm(baseline)}")
+            println("Current:  ${machine()}, ${jvm(current)}")
+            if (baselineMachine != machine() || jvm(baseline) != jvm(current)) {
+                println("WARNING: the baseline was recorded on another machine or JVM, so the changes below are not comparable")
+            }
+        }
+        for ((name, run) in current) {
+            val ops = score(run, null)
+            val baseOps = score(baseline[name], null)
+            val alloc = score(run, "gc.alloc.rate.norm")
+            val change = if (ops != null && baseOps != null && baseOps > 0) "%+.1f%%".format((ops / baseOps - 1) * 100) else "no baseline"
+            println("%-90s %14.1f ops/s %10s %12.1f B/op".format(name.removePrefix("com.example.notification.benchmark."), ops, change, alloc))
+        }
+        if (baseline.isEmpty()) {
+            throw GradleException("No baseline in ${baselineFile.asFile}: record one on the reference machine with " +
+                    "./gradlew jmh jmhBaseline and commit it together with ${baselineMachineFile.asFile.name}")
+        }
+    }
+}
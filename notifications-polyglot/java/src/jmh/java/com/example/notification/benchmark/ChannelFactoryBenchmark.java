@@ -0,0 +1,32 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.ChannelFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Adapter lookup done for every channel of every record; already normalized
+ * names should not allocate.
+ */
+@State(Scope.Benchmark)
+public class ChannelFactoryBenchmark {
+
+    @Param({"email", "EMAIL", " sms "})
+    private String channel;
+
+    private ChannelFactory factory;
+
+    @Setup
+    public void setUp() {
+        factory = new ChannelFactory(StubAdapters.all());
+    }
+
+    @Benchmark
+    public ChannelAdapter getAdapter() {
+        return factory.getAdapter(channel);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.repository.NotificationStatusRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository stand-ins for benchmarks, so the measured paths run without a
+ * database. Methods a benchmark does not rely on do nothing and return an
+ * empty value.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static <T> T noop(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> emptyValue(proxy, method, args)));
+    }
+
+    /**
+     * Keeps channel statuses per notification in a map and recomputes the
+     * aggregate the way the SQL in NotificationStatusRepositoryCustomImpl does.
+     */
+    static final class StatusTable {
+
+        private record Row(Map<String, String> channels, String status, long version) {
+        }
+
+        private final Map<String, Row> rows = new ConcurrentHashMap<>();
+
+        void create(String notificationId, Collection<String> channels) {
+            Map<String, String> statuses = new HashMap<>();
+            channels.forEach(channel -> statuses.put(channel, "ENQUEUED"));
+            rows.put(notificationId, new Row(statuses, "ENQUEUED", 0));
+        }
+
+        NotificationStatusRepository repository() {
+            return (NotificationStatusRepository) Proxy.newProxyInstance(NotificationStatusRepository.class.getClassLoader(),
+                    new Class<?>[]{NotificationStatusRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "mergeChannelStatuses" -> merge(cast(args[0]));
+                        case "updateChannelStatus" -> args.length == 3
+                                ? Optional.ofNullable(apply((String) args[0], Map.of((String) args[1], (String) args[2])))
+                                : emptyValue(proxy, method, args);
+                        default -> emptyValue(proxy, method, args);
+                    });
+        }
+
+        private List<ChannelStatusUpdate> merge(Map<String, Map<String, String>> transitions) {
+            List<ChannelStatusUpdate> updates = new ArrayList<>(transitions.size());
+            transitions.forEach((notificationId, channels) -> {
+                ChannelStatusUpdate update = apply(notificationId, channels);
+                if (update != null) {
+                    updates.add(update);
+                }
+            });
+            return updates;
+        }
+
+        private ChannelStatusUpdate apply(String notificationId, Map<String, String> channels) {
+            ChannelStatusUpdate[] update = new ChannelStatusUpdate[1];
+            rows.computeIfPresent(notificationId, (id, row) -> {
+                Map<String, String> merged = new HashMap<>(row.channels());
+                merged.putAll(channels);
+                Row next = new Row(merged, aggregate(merged.values()), row.version() + 1);
+                update[0] = new ChannelStatusUpdate(id, row.status(), next.status(), next.version());
+                return next;
+            });
+            return update[0];
+        }
+
+        private static String aggregate(Collection<String> statuses) {
+            boolean allCompleted = true;
+            boolean anyFailed = false;
+            for (String status : statuses) {
+                allCompleted &= "COMPLETED".equals(status);
+                anyFailed |= "FAILED".equals(status);
+            }
+            return allCompleted ? "COMPLETED" : anyFailed ? "PARTIAL_FAILURE" : "PROCESSING";
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Map<String, String>> cast(Object transitions) {
+            return (Map<String, Map<String, String>>) transitions;
+        }
+    }
+
+    private static Object emptyValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "InMemory" + proxy.getClass().getInterfaces()[0].getSimpleName();
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == Optional.class) {
+            return Optional.empty();
+        } else if (type == OptionalInt.class) {
+            return OptionalInt.empty();
+        } else if (type.isAssignableFrom(List.class)) {
+            return List.of();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.kafka.NotificationDeserializer;
+import com.example.notification.kafka.NotificationSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Kafka value (de)serialization of a NotificationRequest in both payload
+ * formats, as configured by notification.payload.format.
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"json", "binary"})
+    private String format;
+
+    @Param({"10", "1000"})
+    private int recipients;
+
+    private NotificationSerializer serializer;
+    private NotificationDeserializer deserializer;
+    private NotificationRequest request;
+    private RecordHeaders headers;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new NotificationSerializer();
+        serializer.configure(Map.of(NotificationSerializer.FORMAT_CONFIG, format), false);
+        deserializer = new NotificationDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        request = new NotificationRequest();
+        request.setChannels(List.of("email", "push"));
+        request.setRecipientIds(IntStream.range(0, recipients).mapToObj(i -> "user-" + (100_000 + i)).toList());
+        request.setMessage("Your order has shipped");
+        request.setTenantId("tenant-a");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("orderId", "o-12345");
+        metadata.put("items", 3);
+        metadata.put("total", 42.5);
+        request.setMetadata(metadata);
+
+        headers = new RecordHeaders();
+        payload = serializer.serialize("notifications", headers, request);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        // Fresh headers, as the producer passes each record's own
+        return serializer.serialize("notifications", new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize("notifications", headers, payload);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusWriteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Channel status transitions through NotificationStatusService into an
+ * in-memory status table: single webhook-style updates, and the worker's
+ * stage-per-channel then commit pattern.
+ */
+@State(Scope.Benchmark)
+public class StatusUpdateBenchmark {
+
+    private static final List<String> CHANNELS = List.of("email", "sms", "push");
+    private static final String[] STATUSES = {"PROCESSING", "COMPLETED", "FAILED"};
+    private static final int NOTIFICATIONS = 1024;
+
+    @Param({"FLUSH_BEFORE_ACK", "ASYNC"})
+    private StatusProperties.DurabilityMode mode;
+
+    private NotificationStatusService statusService;
+    private String[] notificationIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        InMemoryRepositories.StatusTable table = new InMemoryRepositories.StatusTable();
+        notificationIds = new String[NOTIFICATIONS];
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            notificationIds[i] = "notification-" + i;
+            table.create(notificationIds[i], CHANNELS);
+        }
+        StatusProperties properties = new StatusProperties();
+        properties.getWriteBehind().setMode(mode);
+        StatusWriteBuffer writeBuffer = new StatusWriteBuffer(table.repository(), event -> {
+        }, properties);
+        // Counters, cache and recipient outcomes are not on these paths
+        statusService = new NotificationStatusService(table.repository(), null, writeBuffer, null, null, event -> {
+        });
+    }
+
+    @Benchmark
+    public Optional<String> updateChannelStatus() {
+        int i = next++;
+        return statusService.updateChannelStatus(notificationIds[i & (NOTIFICATIONS - 1)], CHANNELS.get(i % 3), STATUSES[i % 3]);
+    }
+
+    @Benchmark
+    public void stageAndCommit(Blackhole blackhole) {
+        int i = next++;
+        String notificationId = notificationIds[i & (NOTIFICATIONS - 1)];
+        for (String channel : CHANNELS) {
+            statusService.stageChannelStatus(notificationId, channel, STATUSES[i % 3]);
+        }
+        statusService.commitStagedStatuses();
+        blackhole.consume(notificationId);
+    }
+}
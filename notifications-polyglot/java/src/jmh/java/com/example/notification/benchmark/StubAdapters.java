@@ -0,0 +1,49 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adapters that accept every send without I/O, so a benchmark measures the
+ * service's own overhead rather than a provider's latency.
+ */
+final class StubAdapters {
+
+    private StubAdapters() {
+    }
+
+    static List<ChannelAdapter> all() {
+        return List.of(stub("email", 1000), stub("sms", 1), stub("push", 500));
+    }
+
+    static ChannelAdapter stub(String channel, int maxBatchSize) {
+        return new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of(channel);
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return maxBatchSize;
+            }
+
+            @Override
+            public List<SendResult> sendBatch(List<String> recipientIds, String message) {
+                List<SendResult> results = new ArrayList<>(recipientIds.size());
+                for (String recipientId : recipientIds) {
+                    results.add(SendResult.success(recipientId));
+                }
+                return results;
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.notification.benchmark;
+
+import com.example.notification.adapter.ChannelFactory;
+import com.example.notification.config.CircuitBreakerProperties;
+import com.example.notification.config.PriorityProperties;
+import com.example.notification.config.RateLimitProperties;
+import com.example.notification.config.RetryProperties;
+import com.example.notification.config.StatusProperties;
+import com.example.notification.config.TemplateProperties;
+import com.example.notification.config.WorkerProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.repository.DeliveredUnitRepository;
+import com.example.notification.repository.MessageTemplateRepository;
+import com.example.notification.repository.RecipientOutcomeRepository;
+import com.example.notification.resilience.ChannelBulkheads;
+import com.example.notification.resilience.ChannelRateLimiter;
+import com.example.notification.resilience.CircuitBreakers;
+import com.example.notification.service.DeliveryReportService;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusWriteBuffer;
+import com.example.notification.service.TemplateService;
+import com.example.notification.worker.DeliveryLedger;
+import com.example.notification.worker.FanOutDispatcher;
+import com.example.notification.worker.NotificationWorker;
+import com.example.notification.worker.RetryScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * One Kafka record through NotificationWorker.listen: adapter lookup, status
+ * staging, fan-out over the channel lanes with stub adapters, outcome
+ * reporting and the status flush before ack.
+ */
+@State(Scope.Benchmark)
+public class WorkerDispatchBenchmark {
+
+    private static final List<String> CHANNELS = List.of("email", "sms", "push");
+
+    @Param({"1", "1000"})
+    private int recipients;
+
+    private NotificationWorker worker;
+    private ConsumerRecord<String, NotificationRequest> record;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WorkerProperties workerProperties = new WorkerProperties();
+        // The same record is replayed every invocation, which the ledger would skip as redelivered
+        workerProperties.getDedup().setEnabled(false);
+        PriorityProperties priorityProperties = new PriorityProperties();
+
+        InMemoryRepositories.StatusTable table = new InMemoryRepositories.StatusTable();
+        table.create("n1", CHANNELS);
+        StatusWriteBuffer writeBuffer = new StatusWriteBuffer(table.repository(), event -> {
+        }, new StatusProperties());
+        NotificationStatusService statusService = new NotificationStatusService(table.repository(), null, writeBuffer,
+                null, null, event -> {
+        });
+        FanOutDispatcher dispatcher = new FanOutDispatcher(new ChannelBulkheads(workerProperties, priorityProperties, registry),
+                new ChannelRateLimiter(new RateLimitProperties(), registry),
+                new CircuitBreakers(new CircuitBreakerProperties(), registry));
+
+        // Every send succeeds, so the retry scheduler never publishes
+        worker = new NotificationWorker(new ChannelFactory(StubAdapters.all()), statusService, dispatcher,
+                new RetryScheduler(null, new RetryProperties()),
+                new DeliveryReportService(InMemoryRepositories.noop(RecipientOutcomeRepository.class)),
+                new DeliveryLedger(InMemoryRepositories.noop(DeliveredUnitRepository.class), workerProperties),
+                priorityProperties,
+                new TemplateService(InMemoryRepositories.noop(MessageTemplateRepository.class), new TemplateProperties()));
+
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(CHANNELS);
+        request.setRecipientIds(IntStream.range(0, recipients).mapToObj(i -> "user-" + i).toList());
+        request.setMessage("Your order has shipped");
+        record = new ConsumerRecord<>("notifications", 0, 0, "n1", request);
+    }
+
+    @Benchmark
+    public void listen() {
+        worker.listen(record);
+    }
+}
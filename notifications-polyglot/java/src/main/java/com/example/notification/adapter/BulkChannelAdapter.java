@@ -0,0 +1,57 @@
+package com.example.notification.adapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base for adapters whose provider has a bulk API: recipient lists are split
+ * into chunks of {@link #maxBatchSize()} and each chunk is one provider call.
+ */
+public abstract class BulkChannelAdapter implements ChannelAdapter {
+
+    private final int maxBatchSize;
+
+    protected BulkChannelAdapter(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public List<SendResult> sendBatch(List<String> recipientIds, String message) {
+        return sendInChunks(recipientIds, Collections.nCopies(recipientIds.size(), message));
+    }
+
+    /**
+     * @param messages each recipient's text, parallel to {@code recipientIds}
+     */
+    protected List<SendResult> sendInChunks(List<String> recipientIds, List<String> messages) {
+        List<SendResult> results = new ArrayList<>(recipientIds.size());
+        for (int from = 0; from < recipientIds.size(); from += maxBatchSize) {
+            int to = Math.min(from + maxBatchSize, recipientIds.size());
+            List<String> chunk = recipientIds.subList(from, to);
+            try {
+                sendChunk(chunk, messages.subList(from, to));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (String recipientId : recipientIds.subList(from, recipientIds.size())) {
+                    results.add(SendResult.failure(recipientId, "interrupted"));
+                }
+                return results;
+            }
+            for (String recipientId : chunk) {
+                results.add(SendResult.success(recipientId));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * One provider call; {@code messages} holds each recipient's text, in the same order.
+     */
+    protected abstract void sendChunk(List<String> recipientIds, List<String> messages) throws InterruptedException;
+}
@@ -1,6 +1,76 @@
 package com.example.notification.adapter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
 public interface ChannelAdapter {
-    boolean supports(String channel);
+    /**
+     * Lower-case channel keys this adapter serves. {@link ChannelFactory} builds
+     * its routing table from these at startup.
+     */
+    Set<String> channels();
+
     void send(String recipientId, String message);
+
+    default boolean supports(String channel) {
+        return channel != null && channels().contains(channel.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Largest recipient list the provider accepts in one call. Callers split
+     * bigger lists into chunks of this size before calling {@link #sendBatch}.
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Sends one message to many recipients, returning one result per recipient
+     * in input order. Adapters without a bulk API fall back to {@link #send}.
+     */
+    default List<SendResult> sendBatch(List<String> recipientIds, String message) {
+        List<SendResult> results = new ArrayList<>(recipientIds.size());
+        for (String recipientId : recipientIds) {
+            try {
+                send(recipientId, message);
+                results.add(SendResult.success(recipientId));
+            } catch (Exception e) {
+                results.add(SendResult.failure(recipientId, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Sends each recipient its own message ({@code messages} is parallel to
+     * {@code recipientIds}), returning one result per recipient in input order.
+     * The default groups recipients whose text is identical into one
+     * {@link #sendBatch} call each, so a personalized template where every text
+     * differs costs one provider call per recipient. Adapters whose provider
+     * takes per-recipient content in one request should override this.
+     */
+    default List<SendResult> sendPersonalizedBatch(List<String> recipientIds, List<String> messages) {
+        Map<String, List<Integer>> positionsByMessage = new LinkedHashMap<>();
+        for (int i = 0; i < recipientIds.size(); i++) {
+            positionsByMessage.computeIfAbsent(messages.get(i), message -> new ArrayList<>()).add(i);
+        }
+        SendResult[] results = new SendResult[recipientIds.size()];
+        positionsByMessage.forEach((message, positions) -> {
+            List<String> group = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                group.add(recipientIds.get(position));
+            }
+            List<SendResult> groupResults = sendBatch(group, message);
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = i < groupResults.size() ? groupResults.get(i)
+                        : SendResult.failure(group.get(i), "no result from provider");
+            }
+        });
+        return Arrays.asList(results);
+    }
 }
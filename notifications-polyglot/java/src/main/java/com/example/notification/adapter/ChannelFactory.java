@@ -2,24 +2,56 @@ package com.example.notification.adapter;
 
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Component
 public class ChannelFactory {
 
-    private final List<ChannelAdapter> adapters;
+    // Immutable, lower-cased channel -> adapter table built once at startup
+    private final Map<String, ChannelAdapter> routes;
+    private final Set<String> registeredChannels;
 
     public ChannelFactory(List<ChannelAdapter> adapters) {
-        this.adapters = adapters;
+        Map<String, ChannelAdapter> table = new HashMap<>();
+        for (ChannelAdapter adapter : adapters) {
+            Set<String> channels = adapter.channels();
+            if (channels == null || channels.isEmpty()) {
+                throw new IllegalStateException(adapter.getClass().getName() + " does not declare any channels");
+            }
+            for (String channel : channels) {
+                String key = normalize(channel);
+                ChannelAdapter existing = table.putIfAbsent(key, adapter);
+                if (existing != null && existing != adapter) {
+                    throw new IllegalStateException("Channel '" + key + "' is declared by both "
+                            + existing.getClass().getName() + " and " + adapter.getClass().getName());
+                }
+            }
+        }
+        this.routes = Map.copyOf(table);
+        this.registeredChannels = Collections.unmodifiableSortedSet(new TreeSet<>(table.keySet()));
     }
 
     public ChannelAdapter getAdapter(String channel) {
-        return adapters.stream()
-                .filter(adapter -> adapter.supports(channel))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Unsupported channel: " + channel));
+        ChannelAdapter adapter = channel == null ? null : routes.get(normalize(channel));
+        if (adapter == null) {
+            throw new IllegalArgumentException("Unsupported channel: " + channel
+                    + " (registered: " + registeredChannels + ")");
+        }
+        return adapter;
+    }
+
+    public Set<String> getRegisteredChannels() {
+        return registeredChannels;
+    }
+
+    private static String normalize(String channel) {
+        // Returns the same instance when already lower-case, so the hot path does not allocate
+        return channel.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -1,15 +1,23 @@
 package com.example.notification.adapter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+
 @Slf4j
 @Component
-public class EmailAdapter implements ChannelAdapter {
+public class EmailAdapter extends BulkChannelAdapter {
+
+    public EmailAdapter(@Value("${notification.adapter.email.max-batch-size:500}") int maxBatchSize) {
+        super(maxBatchSize);
+    }
 
     @Override
-    public boolean supports(String channel) {
-        return "email".equalsIgnoreCase(channel);
+    public Set<String> channels() {
+        return Set.of("email");
     }
 
     @Override
@@ -21,4 +29,22 @@ public class EmailAdapter implements ChannelAdapter {
             Thread.currentThread().interrupt();
         }
     }
+
+    /**
+     * Bulk mail APIs take per-recipient substitutions, so personalized text costs the
+     * same provider calls as a shared message.
+     */
+    @Override
+    public List<SendResult> sendPersonalizedBatch(List<String> recipientIds, List<String> messages) {
+        return sendInChunks(recipientIds, messages);
+    }
+
+    @Override
+    protected void sendChunk(List<String> recipientIds, List<String> messages) throws InterruptedException {
+        log.info("[Email] Bulk sending to {} recipients", recipientIds.size());
+        for (int i = 0; i < recipientIds.size(); i++) {
+            log.debug("[Email] {}: {}", recipientIds.get(i), messages.get(i));
+        }
+        Thread.sleep(200); // Simulate one provider round trip per chunk
+    }
 }
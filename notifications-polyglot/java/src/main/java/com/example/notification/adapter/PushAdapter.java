@@ -1,15 +1,23 @@
 package com.example.notification.adapter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+
 @Slf4j
 @Component
-public class PushAdapter implements ChannelAdapter {
+public class PushAdapter extends BulkChannelAdapter {
+
+    public PushAdapter(@Value("${notification.adapter.push.max-batch-size:1000}") int maxBatchSize) {
+        super(maxBatchSize);
+    }
 
     @Override
-    public boolean supports(String channel) {
-        return "push".equalsIgnoreCase(channel);
+    public Set<String> channels() {
+        return Set.of("push");
     }
 
     @Override
@@ -21,4 +29,22 @@ public class PushAdapter implements ChannelAdapter {
             Thread.currentThread().interrupt();
         }
     }
+
+    /**
+     * Push multicast APIs take one payload per device token, so personalized text costs the
+     * same provider calls as a shared message.
+     */
+    @Override
+    public List<SendResult> sendPersonalizedBatch(List<String> recipientIds, List<String> messages) {
+        return sendInChunks(recipientIds, messages);
+    }
+
+    @Override
+    protected void sendChunk(List<String> recipientIds, List<String> messages) throws InterruptedException {
+        log.info("[Push] Bulk sending to {} recipients", recipientIds.size());
+        for (int i = 0; i < recipientIds.size(); i++) {
+            log.debug("[Push] {}: {}", recipientIds.get(i), messages.get(i));
+        }
+        Thread.sleep(100); // Simulate one provider round trip per chunk
+    }
 }
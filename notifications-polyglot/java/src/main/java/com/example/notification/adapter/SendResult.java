@@ -0,0 +1,12 @@
+package com.example.notification.adapter;
+
+public record SendResult(String recipientId, boolean success, String error) {
+
+    public static SendResult success(String recipientId) {
+        return new SendResult(recipientId, true, null);
+    }
+
+    public static SendResult failure(String recipientId, String error) {
+        return new SendResult(recipientId, false, error);
+    }
+}
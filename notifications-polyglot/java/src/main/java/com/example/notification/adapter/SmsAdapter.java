@@ -1,15 +1,23 @@
 package com.example.notification.adapter;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Set;
+
 @Slf4j
 @Component
-public class SmsAdapter implements ChannelAdapter {
+public class SmsAdapter extends BulkChannelAdapter {
+
+    public SmsAdapter(@Value("${notification.adapter.sms.max-batch-size:100}") int maxBatchSize) {
+        super(maxBatchSize);
+    }
 
     @Override
-    public boolean supports(String channel) {
-        return "sms".equalsIgnoreCase(channel);
+    public Set<String> channels() {
+        return Set.of("sms");
     }
 
     @Override
@@ -21,4 +29,11 @@ public class SmsAdapter implements ChannelAdapter {
             Thread.currentThread().interrupt();
         }
     }
+
+    // Only ever called with one shared text: personalized sends fall back to one sendBatch per distinct text
+    @Override
+    protected void sendChunk(List<String> recipientIds, List<String> messages) throws InterruptedException {
+        log.info("[SMS] Bulk sending to {} recipients: {}", recipientIds.size(), messages.get(0));
+        Thread.sleep(500); // Simulate one provider round trip per chunk
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    // Number of most recent provider calls the failure rate is computed over
+    private int windowSize = 50;
+    private int minimumCalls = 10;
+    private double failureRateThreshold = 0.5;
+    private long openDurationMs = 30000;
+    // Trial calls let through while half-open; all must succeed to close again
+    private int halfOpenProbes = 3;
+    private Timeout timeout = new Timeout();
+
+    @Data
+    public static class Timeout {
+        // Call timeout = latency percentile x multiplier, clamped to [min, max]
+        private double percentile = 0.99;
+        private double multiplier = 3.0;
+        private long minMs = 200;
+        private long maxMs = 10000;
+        // Below this many samples the max timeout is used
+        private int minSamples = 20;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.enqueue")
+public class EnqueueProperties {
+
+    // Max recipients per Kafka record; larger requests are split into chunks that
+    // are keyed independently so they spread across partitions
+    private int chunkSize = 1000;
+    // Larger requests get bigger chunks instead of more: every chunk is a key in the
+    // notification's status row, and every chunk transition updates (and locks) that row
+    private int maxChunks = 64;
+    // Hard cap that wins over maxChunks: past maxChunkSize x maxChunks recipients a
+    // request gets more chunks again, so one Kafka record never outgrows the broker limit
+    private int maxChunkSize = 10000;
+    // NDJSON lines enqueued per transaction by POST /notify/bulk
+    private int bulkBatchSize = 1000;
+}
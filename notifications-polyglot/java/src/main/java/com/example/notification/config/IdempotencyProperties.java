@@ -0,0 +1,18 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.idempotency")
+public class IdempotencyProperties {
+
+    // How long a key maps to its notification; older rows are reclaimed and purged
+    private Duration ttl = Duration.ofHours(24);
+    // Local cache in front of the key table; entries never outlive the DB ttl
+    private long cacheMaxSize = 100_000;
+    private Duration cacheTtl = Duration.ofMinutes(10);
+    private long purgeIntervalMs = 600_000;
+}
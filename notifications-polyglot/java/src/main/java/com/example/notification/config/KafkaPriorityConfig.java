@@ -0,0 +1,20 @@
+package com.example.notification.config;
+
+import com.example.notification.dto.Priority;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+@Configuration
+public class KafkaPriorityConfig {
+
+    @Bean
+    public KafkaAdmin.NewTopics priorityTopics(PriorityProperties properties) {
+        return new KafkaAdmin.NewTopics(properties.getTopics().entrySet().stream()
+                .filter(e -> e.getKey() != Priority.NORMAL)
+                .map(e -> TopicBuilder.name(e.getValue()).partitions(properties.getPartitions()).build())
+                .toArray(NewTopic[]::new));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.notification.config;
+
+import com.example.notification.dto.RetryRequest;
+import com.example.notification.worker.NotificationWorker;
+import com.example.notification.worker.RetryScheduler;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.SimpleKafkaListenerEndpoint;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class KafkaRetryConfig {
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryScheduler retryScheduler, RetryProperties properties) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : retryScheduler.retryTopics()) {
+            topics.add(TopicBuilder.name(topic).partitions(properties.getPartitions()).build());
+        }
+        topics.add(TopicBuilder.name(retryScheduler.deadLetterTopic()).partitions(properties.getPartitions()).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * Manual acks let the retry listener nack a record that is not due yet; the
+     * container then pauses the partition for the remaining delay instead of
+     * blocking the consumer thread past max.poll.interval.ms.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer, ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(false);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * One listener container per delay tier. A record that is not due yet is
+     * nacked, which pauses its whole consumer for the remaining delay; with one
+     * container per tier that wait only holds back records of the same tier,
+     * which share the delay and so become due in order, never a shorter tier.
+     */
+    @Bean
+    public KafkaListenerConfigurer retryTierListeners(RetryScheduler retryScheduler, RetryProperties properties,
+                                                      NotificationWorker worker,
+                                                      ConcurrentKafkaListenerContainerFactory<Object, Object> retryListenerContainerFactory) {
+        return registrar -> {
+            for (String topic : retryScheduler.retryTopics()) {
+                SimpleKafkaListenerEndpoint<String, RetryRequest> endpoint = new SimpleKafkaListenerEndpoint<>();
+                endpoint.setId("notification-retry-worker-" + topic);
+                endpoint.setGroupId("notification-retry-workers");
+                endpoint.setTopics(topic);
+                endpoint.setAutoStartup(properties.isEnabled());
+                endpoint.setMessageListener((AcknowledgingMessageListener<String, RetryRequest>) worker::listenRetry);
+                registrar.registerEndpoint(endpoint, retryListenerContainerFactory);
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.outbox")
+public class OutboxProperties {
+
+    private boolean relayEnabled = true;
+    private long pollIntervalMs = 50;
+    // Rows claimed and published per relay pass
+    private int batchSize = 500;
+    // Max wait for the broker to ack a batch; unacked rows are published again by a later pass
+    private long sendTimeoutMs = 10000;
+    // How long a claimed batch is reserved for its relay; must exceed send-timeout-ms, or another
+    // relay may take the rows over while they are still being sent
+    private long claimLeaseMs = 30000;
+}
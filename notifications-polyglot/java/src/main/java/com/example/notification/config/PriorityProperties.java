@@ -0,0 +1,47 @@
+package com.example.notification.config;
+
+import com.example.notification.dto.Priority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Data
+@ConfigurationProperties(prefix = "notification.priority")
+public class PriorityProperties {
+
+    // NORMAL keeps the original topic, so producers that do not set a priority are unaffected
+    private Map<Priority, String> topics = new EnumMap<>(Map.of(
+            Priority.HIGH, "notifications-high",
+            Priority.NORMAL, "notifications",
+            Priority.LOW, "notifications-low"));
+    // Share of freed lane slots each priority gets while all of them have sends waiting
+    private Map<Priority, Integer> weights = new EnumMap<>(Map.of(
+            Priority.HIGH, 16,
+            Priority.NORMAL, 4,
+            Priority.LOW, 1));
+    // Lane slots only HIGH sends may take, so NORMAL and LOW can never occupy a whole lane
+    private int highReservedSlots = 2;
+    private int partitions = 3;
+
+    public String topicFor(Priority priority) {
+        return topics.get(Priority.orNormal(priority));
+    }
+
+    public Optional<Priority> priorityOf(String topic) {
+        return topics.entrySet().stream().filter(e -> e.getValue().equals(topic)).map(Map.Entry::getKey).findFirst();
+    }
+
+    /**
+     * @return weight per priority level, indexed by {@link Priority#ordinal()}
+     */
+    public int[] levelWeights() {
+        int[] levels = new int[Priority.values().length];
+        for (Priority priority : Priority.values()) {
+            levels[priority.ordinal()] = Math.max(1, weights.getOrDefault(priority, 1));
+        }
+        return levels;
+    }
+}
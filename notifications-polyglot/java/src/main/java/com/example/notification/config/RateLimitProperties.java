@@ -0,0 +1,29 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.rate-limit")
+public class RateLimitProperties {
+
+    // Keyed by lower-case channel; channels without an entry are not throttled
+    private Map<String, ChannelLimit> channels = new HashMap<>();
+    // Per-tenant buckets kept in memory; idle ones are dropped, which must be longer than any tenant burst window
+    private long tenantBucketsMaxSize = 10_000;
+    private Duration tenantBucketIdleTimeout = Duration.ofMinutes(10);
+
+    @Data
+    public static class ChannelLimit {
+        private double permitsPerSecond;
+        // Defaults to one second's worth of permits
+        private Integer burst;
+        // Optional cap applied to each tenant on top of the channel-wide limit
+        private Double tenantPermitsPerSecond;
+        private Integer tenantBurst;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "notification.retry")
+public class RetryProperties {
+
+    // When false nothing is retried: failed units are dead-lettered right away, or only
+    // marked FAILED if dead-letter-when-disabled is false as well
+    private boolean enabled = true;
+    private boolean deadLetterWhenDisabled = true;
+    // One delay topic per entry; the n-th retry waits delays[n-1], so max attempts = delays.size()
+    private List<Duration> delays = new ArrayList<>(List.of(
+            Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofMinutes(1), Duration.ofMinutes(10)));
+    private String topicPrefix = "notifications-retry";
+    private String deadLetterTopic = "notifications-dlt";
+    private int partitions = 3;
+}
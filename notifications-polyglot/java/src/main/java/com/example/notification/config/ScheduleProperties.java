@@ -0,0 +1,29 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.schedule")
+public class ScheduleProperties {
+
+    // Off on nodes that should accept scheduled requests but leave firing them to others
+    private boolean dispatcherEnabled = true;
+    // Wheel resolution; a due notification reaches the outbox within about one tick
+    private long tickMs = 100;
+    private int wheelSlots = 512;
+    // Schedules due within this window are loaded into the wheel, in passes of load-batch-size rows
+    private Duration lookahead = Duration.ofMinutes(5);
+    private long loadIntervalMs = 10_000;
+    private int loadBatchSize = 10_000;
+    // Loading pauses while the wheel holds this many entries
+    private int maxLoaded = 2_000_000;
+    // Rows still pending this long after their due time are loaded again, e.g. after a node crashed
+    private Duration overdueGrace = Duration.ofSeconds(30);
+    // Due times are pushed back by a random amount up to this, so "09:00" does not arrive all at once
+    private Duration maxJitter = Duration.ofSeconds(30);
+    // Due notifications moved to the outbox per transaction
+    private int fireBatchSize = 500;
+}
@@ -0,0 +1,18 @@
+package com.example.notification.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class StatusCacheConfig {
+
+    /**
+     * Compacted, so the topic only keeps the newest version written per notification.
+     */
+    @Bean
+    public NewTopic statusInvalidationTopic(StatusProperties properties) {
+        return TopicBuilder.name(properties.getCache().getInvalidationTopic()).partitions(properties.getCache().getInvalidationPartitions()).compact().build();
+    }
+}
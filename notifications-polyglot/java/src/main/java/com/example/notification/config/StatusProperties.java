@@ -0,0 +1,71 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.status")
+public class StatusProperties {
+
+    private WriteBehind writeBehind = new WriteBehind();
+    private Metrics metrics = new Metrics();
+    private Cache cache = new Cache();
+    private Subscriptions subscriptions = new Subscriptions();
+    private LegacyMigration legacyMigration = new LegacyMigration();
+
+    @Data
+    public static class WriteBehind {
+        private DurabilityMode mode = DurabilityMode.FLUSH_BEFORE_ACK;
+        // Flush as soon as this many channel transitions are buffered
+        private int maxPending = 500;
+        // Background flush cadence, also bounds staleness in ASYNC mode
+        private long flushIntervalMs = 200;
+    }
+
+    @Data
+    public static class Metrics {
+        private long checkpointIntervalMs = 5000;
+        private long reconcileIntervalMs = 3600000;
+        // Enable on exactly one node: a reconcile overwrites deltas other nodes have not checkpointed yet.
+        // Not needed to seed the counters, which every node does once if the table is empty
+        private boolean reconcileEnabled = false;
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maxSize = 100_000;
+        // Backstop for a lost invalidation; writes normally update or invalidate entries first
+        private Duration ttl = Duration.ofSeconds(60);
+        // Compacted topic on which every node announces the versions it wrote
+        private String invalidationTopic = "notification-status-invalidations";
+        // Every node is assigned all of these, so this must match the topic's partition count
+        private int invalidationPartitions = 3;
+    }
+
+    @Data
+    public static class Subscriptions {
+        // Open SSE streams and long polls across all notifications on this node
+        private int maxOpen = 100_000;
+        private long streamTimeoutMs = 300_000;
+        private long defaultPollTimeoutMs = 30_000;
+        private long maxPollTimeoutMs = 120_000;
+    }
+
+    @Data
+    public static class LegacyMigration {
+        // Backfills channel_statuses from notification_channel_status at startup
+        private boolean enabled = false;
+        // Rows per UPDATE statement, each committed on its own
+        private int batchSize = 1000;
+    }
+
+    public enum DurabilityMode {
+        // Callers flush buffered transitions before acking the Kafka record or webhook
+        FLUSH_BEFORE_ACK,
+        // Transitions are written only by the size/time triggers
+        ASYNC
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.template")
+public class TemplateProperties {
+
+    // Compiled templates kept per node; templates are immutable, so entries only leave by eviction
+    private long cacheMaxSize = 10_000;
+    private int maxBodyLength = 65_536;
+}
@@ -0,0 +1,48 @@
+package com.example.notification.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.worker")
+public class WorkerProperties {
+
+    private FanOut fanOut = new FanOut();
+    private Bulkhead bulkhead = new Bulkhead();
+    private Dedup dedup = new Dedup();
+
+    @Data
+    public static class FanOut {
+        // Max in-flight sends per channel, shared across all notifications on this node
+        private int defaultConcurrency = 64;
+        private Map<String, Integer> channelConcurrency = new HashMap<>();
+
+        public int concurrencyFor(String channel) {
+            return channelConcurrency.getOrDefault(channel.toLowerCase(), defaultConcurrency);
+        }
+    }
+
+    @Data
+    public static class Bulkhead {
+        // Max sends waiting for a slot in one channel's lane before new ones are rejected
+        private int defaultMaxQueueDepth = 10000;
+        private Map<String, Integer> channelMaxQueueDepth = new HashMap<>();
+        // How long a queued send may wait for a slot before it is rejected
+        private long maxQueueWaitMs = 30000;
+
+        public int maxQueueDepthFor(String channel) {
+            return channelMaxQueueDepth.getOrDefault(channel.toLowerCase(), defaultMaxQueueDepth);
+        }
+    }
+
+    @Data
+    public static class Dedup {
+        // Skip (notification, channel, chunk) units a redelivered record already delivered
+        private boolean enabled = true;
+        // How often checkpoint rows below the committed offsets are deleted
+        private long purgeIntervalMs = 60000;
+    }
+}
@@ -2,10 +2,15 @@ package com.example.notification.controller;
 
 import com.example.notification.common.ApiResponse;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.service.BulkNotificationService;
+import com.example.notification.service.IdempotencyService;
 import com.example.notification.service.NotificationService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
 
@@ -15,11 +20,42 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final BulkNotificationService bulkNotificationService;
+    private final IdempotencyService idempotencyService;
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    /**
+     * With an Idempotency-Key header, retries of the same request within the
+     * key's ttl return the original notification id instead of enqueuing again.
+     */
     @PostMapping
-    public ResponseEntity<ApiResponse<Map<String, String>>> sendNotification(@RequestBody NotificationRequest request) {
-        String id = notificationService.enqueueNotification(request);
+    public ResponseEntity<ApiResponse<Map<String, String>>> sendNotification(
+            @RequestBody NotificationRequest request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            String id = notificationService.enqueueNotification(request);
+            return ResponseEntity.accepted()
+                    .body(ApiResponse.success(Map.of("notification_id", id, "status", "enqueued")));
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Idempotency-Key must not exceed " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+        }
+        NotificationService.EnqueueResult result = idempotencyService.enqueue(idempotencyKey, request);
+        return ResponseEntity.accepted()
+                .header("Idempotent-Replayed", Boolean.toString(result.replayed()))
+                .body(ApiResponse.success(Map.of("notification_id", result.notificationId(), "status", "enqueued")));
+    }
+
+    /**
+     * Accepts one NotificationRequest per line and streams back one result per
+     * line ({"line":n,"notification_id":...} or {"line":n,"error":...}).
+     */
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> sendBulk(HttpServletRequest request) {
         return ResponseEntity.accepted()
-                .body(ApiResponse.success(Map.of("notification_id", id, "status", "enqueued")));
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bulkNotificationService.enqueueStream(request.getInputStream(), out));
     }
 }
@@ -1,20 +1,34 @@
 package com.example.notification.controller;
 
 import com.example.notification.common.ApiResponse;
+import com.example.notification.dto.DeliveryReport;
+import com.example.notification.dto.FailedRecipientsPage;
 import com.example.notification.dto.NotificationMetrics;
 import com.example.notification.entity.NotificationStatus;
+import com.example.notification.service.DeliveryReportService;
+import com.example.notification.service.NotificationScheduler;
 import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusSubscriptionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
 public class StatusController {
 
     private final NotificationStatusService statusService;
+    private final DeliveryReportService deliveryReportService;
+    private final StatusSubscriptionService subscriptionService;
+    private final NotificationScheduler scheduler;
 
     @GetMapping("/status/{id}")
     public ResponseEntity<ApiResponse<NotificationStatus>> getStatus(@PathVariable String id) {
@@ -23,6 +37,69 @@ public class StatusController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Cancels a notification that is still waiting for its sendAt / delay;
+     * 409 once it has been handed to the outbox.
+     */
+    @PostMapping("/status/{id}/cancel")
+    public ResponseEntity<ApiResponse<NotificationStatus>> cancel(@PathVariable String id) {
+        if (scheduler.cancel(id)) {
+            return statusService.getStatus(id)
+                    .map(status -> ResponseEntity.ok(ApiResponse.success(status)))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        if (statusService.getStatus(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("Notification " + id + " is not scheduled or was already dispatched"));
+    }
+
+    /**
+     * Server-sent events: the current status, then one event per change until
+     * every channel is COMPLETED or FAILED.
+     */
+    @GetMapping(path = "/status/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable String id) {
+        return subscriptionService.stream(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Long poll: returns once the status version is above {@code version}, or
+     * 304 after {@code timeoutMs} without a change.
+     */
+    @GetMapping("/status/{id}/poll")
+    public DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> pollStatus(
+            @PathVariable String id, @RequestParam(defaultValue = "-1") long version,
+            @RequestParam(defaultValue = "0") long timeoutMs) {
+        return subscriptionService.poll(id, version, timeoutMs).orElseGet(() -> {
+            DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> notFound = new DeferredResult<>();
+            notFound.setResult(ResponseEntity.notFound().build());
+            return notFound;
+        });
+    }
+
+    @GetMapping("/status/{id}/recipients")
+    public ResponseEntity<ApiResponse<DeliveryReport>> getDeliveryReport(@PathVariable String id) {
+        return deliveryReportService.getReport(id)
+                .map(report -> ResponseEntity.ok(ApiResponse.success(report)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/status/{id}/recipients/{channel}/failures")
+    public ResponseEntity<ApiResponse<FailedRecipientsPage>> getFailedRecipients(
+            @PathVariable String id, @PathVariable String channel,
+            @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > 1000) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("page must be >= 0 and size between 1 and 1000"));
+        }
+        return deliveryReportService.getFailures(id, channel, page, size)
+                .map(failures -> ResponseEntity.ok(ApiResponse.success(failures)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/metrics")
     public ResponseEntity<ApiResponse<NotificationMetrics>> getMetrics() {
         return ResponseEntity.ok(ApiResponse.success(statusService.getMetrics()));
@@ -0,0 +1,45 @@
+package com.example.notification.controller;
+
+import com.example.notification.common.ApiResponse;
+import com.example.notification.dto.TemplateRequest;
+import com.example.notification.entity.MessageTemplate;
+import com.example.notification.service.TemplateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/templates")
+@RequiredArgsConstructor
+public class TemplateController {
+
+    private final TemplateService templateService;
+
+    private static final int MAX_TEMPLATE_ID_LENGTH = 255;
+
+    /**
+     * Registers a template once: 201 when created, 200 when the same body is
+     * already registered, 409 when the id holds a different body.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<Map<String, String>>> register(@PathVariable String id,
+                                                                    @RequestBody TemplateRequest request) {
+        if (id.length() > MAX_TEMPLATE_ID_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Template id must not exceed " + MAX_TEMPLATE_ID_LENGTH + " characters"));
+        }
+        boolean created = templateService.register(id, request.getBody());
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(ApiResponse.success(Map.of("template_id", id)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<MessageTemplate>> get(@PathVariable String id) {
+        return templateService.find(id)
+                .map(template -> ResponseEntity.ok(ApiResponse.success(template)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -30,9 +30,11 @@ public class WebhookController {
         String notificationId = (String) payload.get("notification_id");
         String channel = (String) payload.get("channel");
         String status = (String) payload.get("status");
+        // Required for chunked notifications, whose chunks are tracked separately
+        Integer chunk = payload.get("chunk") instanceof Number number ? number.intValue() : null;
         
         if (notificationId != null && channel != null && status != null) {
-            statusService.updateChannelStatus(notificationId, channel, status);
+            statusService.applyCallback(notificationId, channel, chunk, status);
             return ResponseEntity.ok(ApiResponse.success("Callback processed"));
         } else {
             return ResponseEntity.badRequest().body(ApiResponse.error("Invalid payload"));
@@ -0,0 +1,20 @@
+package com.example.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One line of the POST /notify/bulk response: the id created for an input
+ * line, or why that line was rejected.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkNotifyResult(int line, @JsonProperty("notification_id") String notificationId, String error) {
+
+    public static BulkNotifyResult enqueued(int line, String notificationId) {
+        return new BulkNotifyResult(line, notificationId, null);
+    }
+
+    public static BulkNotifyResult rejected(int line, String error) {
+        return new BulkNotifyResult(line, null, error);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryReport {
+    private String notificationId;
+    private int recipientCount;
+    private Map<String, ChannelDelivery> channels;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ChannelDelivery {
+        private int succeeded;
+        private int failed;
+        // Not yet attempted, deferred, or awaiting a retry
+        private int pending;
+    }
+}
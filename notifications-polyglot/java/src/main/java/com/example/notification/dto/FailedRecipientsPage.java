@@ -0,0 +1,27 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FailedRecipientsPage {
+    private String notificationId;
+    private String channel;
+    private int page;
+    private int size;
+    private int totalFailed;
+    private List<FailedRecipient> recipients;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FailedRecipient {
+        private int index;
+        private String recipientId;
+    }
+}
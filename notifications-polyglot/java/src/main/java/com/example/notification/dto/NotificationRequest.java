@@ -1,6 +1,10 @@
 package com.example.notification.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -9,5 +13,18 @@ public class NotificationRequest {
     private List<String> channels;
     private List<String> recipientIds;
     private String message;
+    // Registered template rendered by the worker instead of message, with metadata as its variables
+    private String templateId;
+    // recipientId -> attributes for {{recipient.<name>}} placeholders
+    private Map<String, Map<String, String>> recipientAttributes;
     private Map<String, Object> metadata;
+    private String tenantId;
+    // Defaults to NORMAL; HIGH and LOW go to their own topics and lane queues
+    private Priority priority;
+    // At most one of these; the notification is held back until then (plus jitter).
+    // Write-only so they are not carried into the Kafka records published when it is due
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private OffsetDateTime sendAt;
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private Duration delay;
 }
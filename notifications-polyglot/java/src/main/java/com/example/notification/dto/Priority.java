@@ -0,0 +1,34 @@
+package com.example.notification.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Delivery priority of a notification, highest first; the ordinal is the
+ * priority level used by the channel lanes.
+ */
+public enum Priority {
+    // Transactional sends such as OTPs and password resets
+    HIGH,
+    NORMAL,
+    // Marketing campaigns and other bulk sends
+    LOW;
+
+    @JsonCreator
+    public static Priority of(String value) {
+        if (value == null) {
+            return NORMAL;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority " + value + ", expected one of " + Arrays.toString(values()));
+        }
+    }
+
+    public static Priority orNormal(Priority priority) {
+        return priority == null ? NORMAL : priority;
+    }
+}
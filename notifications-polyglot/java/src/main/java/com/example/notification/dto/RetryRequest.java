@@ -0,0 +1,30 @@
+package com.example.notification.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One (notification, channel) unit republished to a delay topic, carrying only
+ * the recipients that still need to be sent.
+ */
+@Data
+public class RetryRequest {
+    private String notificationId;
+    private String channel;
+    private int chunk;
+    private int chunkCount;
+    private String tenantId;
+    private Priority priority;
+    private List<String> recipientIds;
+    // Position of each recipient in the original request, for per-recipient delivery tracking
+    private List<Integer> recipientIndexes;
+    private String message;
+    // Per-recipient text rendered from a template, parallel to recipientIds; null when message applies to all
+    private List<String> messages;
+    // 1-based retry attempt this record represents
+    private int attempt;
+    // Epoch millis before which the record must not be processed
+    private long notBefore;
+    private String lastError;
+}
@@ -0,0 +1,9 @@
+package com.example.notification.dto;
+
+import lombok.Data;
+
+@Data
+public class TemplateRequest {
+    // Text with {{name}} (metadata), {{recipient.id}} and {{recipient.<attribute>}} placeholders
+    private String body;
+}
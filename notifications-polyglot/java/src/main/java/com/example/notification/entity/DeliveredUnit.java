@@ -0,0 +1,39 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Checkpoint of one delivered (notification, channel, chunk) unit, keyed by the
+ * partition of the record it came from. Rows only matter until the partition's
+ * committed offset passes {@code recordOffset}; older rows are purged.
+ */
+@Entity
+@Table(name = "notification_delivered_units",
+        indexes = @Index(name = "idx_delivered_units_offset", columnList = "topic, partition_id, record_offset"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveredUnit {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "record_offset", nullable = false)
+    private long recordOffset;
+
+    @Embeddable
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String topic;
+        @Column(name = "partition_id")
+        private int partition;
+        private String unitKey;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A registered message template. Rows never change once written, so nodes can
+ * cache the compiled form without invalidation.
+ */
+@Entity
+@Table(name = "notification_templates")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageTemplate {
+
+    @Id
+    @Column(name = "template_id")
+    private String templateId;
+
+    @Column(name = "body", columnDefinition = "text", nullable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * The recipient list of a notification, stored once as an array so delivery
+ * bitmaps can refer to recipients by index.
+ */
+@Entity
+@Table(name = "notification_recipients")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationRecipients {
+
+    @Id
+    private String notificationId;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "recipient_ids", columnDefinition = "text[]", nullable = false)
+    private String[] recipientIds;
+}
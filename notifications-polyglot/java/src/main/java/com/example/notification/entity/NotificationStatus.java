@@ -5,7 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -22,15 +24,37 @@ public class NotificationStatus {
 
     private String status; // ENQUEUED, PROCESSING, COMPLETED, FAILED
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "notification_channel_status", joinColumns = @JoinColumn(name = "notification_id"))
-    @MapKeyColumn(name = "channel")
-    @Column(name = "status")
+    // Stored inline as jsonb ({"email": "COMPLETED", ...}) so reads need no join
+    // and a channel transition is a single UPDATE on this row
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "channel_statuses", columnDefinition = "jsonb")
     private Map<String, String> channelStatuses;
 
+    // Recipients split into this many Kafka records; above 1 each channel is tracked
+    // per chunk under "<channel>#<chunk>" keys so the SQL aggregate covers every chunk
+    @Column(name = "chunk_count")
+    private Integer chunkCount;
+
+    // Bumped by every status write; the cache and subscriptions use it to tell newer rows from older ones
+    @Version
+    private Long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    // Only set on read for chunked notifications: channel -> chunks COMPLETED so far
+    @Transient
+    private Map<String, Integer> completedChunks;
+
+    public static String channelKey(String channel, int chunk, int chunkCount) {
+        return chunkCount <= 1 ? channel : channel + "#" + chunk;
+    }
+
+    public static String channelOf(String channelKey) {
+        int separator = channelKey.lastIndexOf('#');
+        return separator < 0 ? channelKey : channelKey.substring(0, separator);
+    }
 }
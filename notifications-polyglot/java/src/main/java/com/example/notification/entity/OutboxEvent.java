@@ -0,0 +1,64 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A Kafka record waiting to be published, written in the same transaction as
+ * the status row it belongs to and deleted by the relay once the broker acks it.
+ * A row the relay cannot turn into a record is quarantined in place and no
+ * longer claimed.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "record_key")
+    private String recordKey;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "headers", columnDefinition = "jsonb")
+    private Map<String, String> headers;
+
+    // Serialized NotificationRequest, written and read as raw JSON text
+    @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    // Set while a relay is publishing the row; an expired claim can be taken over by another relay
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "quarantined_at")
+    private LocalDateTime quarantinedAt;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    public OutboxEvent(Long id, String topic, String recordKey, Map<String, String> headers, String payload,
+                       LocalDateTime createdAt) {
+        this(id, topic, recordKey, headers, payload, createdAt, null, null, null);
+    }
+
+    public OutboxEvent(String topic, String recordKey, Map<String, String> headers, String payload) {
+        this(null, topic, recordKey, headers, payload, null);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Per-recipient delivery state of one channel as two serialized Roaring bitmaps
+ * of recipient indexes, so a 10k-recipient send costs one row per channel.
+ * Recipients in neither bitmap are still pending.
+ */
+@Entity
+@Table(name = "notification_recipient_outcomes")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipientOutcome {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "succeeded", columnDefinition = "bytea", nullable = false)
+    private byte[] succeeded;
+
+    @Column(name = "failed", columnDefinition = "bytea", nullable = false)
+    private byte[] failed;
+
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String notificationId;
+        private String channel;
+    }
+}
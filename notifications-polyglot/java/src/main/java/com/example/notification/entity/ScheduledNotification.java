@@ -0,0 +1,41 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A notification held back until {@code dueAt}. Its outbox records are kept
+ * here and moved to notification_outbox when it fires; deleting the row
+ * cancels it. A row is loaded into the timing wheel of the one node that
+ * claimed it.
+ */
+@Entity
+@Table(name = "notification_schedules", indexes = @Index(name = "idx_notification_schedules_due", columnList = "due_at, notification_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledNotification {
+
+    @Id
+    @Column(name = "notification_id")
+    private String notificationId;
+
+    @Column(name = "due_at", nullable = false)
+    private Instant dueAt;
+
+    // JSON array of {topic, recordKey, headers, payload}; not read back by the due queries
+    @Column(name = "events", columnDefinition = "jsonb", nullable = false)
+    private String events;
+
+    // Set by the node that loaded the row; past it, every node's overdue pass picks the row up
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    public ScheduledNotification(String notificationId, Instant dueAt, String events) {
+        this(notificationId, dueAt, events, null);
+    }
+}
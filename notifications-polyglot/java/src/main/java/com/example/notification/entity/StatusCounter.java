@@ -0,0 +1,20 @@
+package com.example.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "notification_status_counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatusCounter {
+
+    @Id
+    private String status;
+
+    @Column(name = "count", nullable = false)
+    private long count;
+}
@@ -0,0 +1,13 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown when a callback for a chunked notification does not name a valid chunk; a bare channel key
+ * would sit beside the per-chunk keys and never count towards the aggregate.
+ */
+public class ChunkedCallbackException extends RuntimeException {
+
+    public ChunkedCallbackException(String notificationId, int chunkCount) {
+        super("Notification " + notificationId + " is split into " + chunkCount
+                + " chunks; the callback must name its chunk (0.." + (chunkCount - 1) + ")");
+    }
+}
@@ -2,8 +2,10 @@ package com.example.notification.exception;
 
 import com.example.notification.common.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -17,6 +19,46 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("Internal Server Error: " + e.getMessage()));
     }
-    
+
+    /**
+     * Malformed JSON or a value Jackson rejects, such as an unknown priority, is a
+     * client error; Spring would answer 400 itself if the handler above did not catch it.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUnreadableBody(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(ApiResponse.error("Malformed request body: "
+                + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+    }
+
+    @ExceptionHandler(SubscriptionLimitException.class)
+    public ResponseEntity<ApiResponse<Void>> handleSubscriptionLimit(SubscriptionLimitException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidScheduleException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidSchedule(InvalidScheduleException e) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidTemplateException.class)
+    public ResponseEntity<ApiResponse<Void>> handleInvalidTemplate(InvalidTemplateException e) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(TemplateConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleTemplateConflict(TemplateConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(ChunkedCallbackException.class)
+    public ResponseEntity<ApiResponse<Void>> handleChunkedCallback(ChunkedCallbackException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException e) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ApiResponse.error(e.getMessage()));
+    }
+
     // Add more specific exception handlers here
 }
@@ -0,0 +1,11 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown when an Idempotency-Key is reused with a request body other than the one it was first bound to.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException() {
+        super("Idempotency-Key was already used for a different request");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown when a request's sendAt / delay cannot be scheduled.
+ */
+public class InvalidScheduleException extends RuntimeException {
+
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
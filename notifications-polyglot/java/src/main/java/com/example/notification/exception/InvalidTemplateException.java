@@ -0,0 +1,11 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown for a template body that does not parse, or a request naming a template that is not registered.
+ */
+public class InvalidTemplateException extends RuntimeException {
+
+    public InvalidTemplateException(String message) {
+        super(message);
+    }
+}
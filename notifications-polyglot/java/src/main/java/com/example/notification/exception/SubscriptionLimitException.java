@@ -0,0 +1,11 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown when this node already holds its maximum number of open status subscriptions.
+ */
+public class SubscriptionLimitException extends RuntimeException {
+
+    public SubscriptionLimitException(int limit) {
+        super("Too many open status subscriptions (limit " + limit + ")");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.notification.exception;
+
+/**
+ * Thrown when a template id is registered again with a different body; templates are immutable once registered.
+ */
+public class TemplateConflictException extends RuntimeException {
+
+    public TemplateConflictException(String templateId) {
+        super("Template " + templateId + " is already registered with a different body");
+    }
+}
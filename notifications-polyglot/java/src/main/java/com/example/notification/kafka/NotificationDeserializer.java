@@ -0,0 +1,48 @@
+package com.example.notification.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer for every topic. Reads both formats whatever the
+ * producers are configured with, so topics can hold a mix of JSON and binary
+ * records while a switch rolls out: binary {@link NotificationRequestCodec}
+ * records are decoded directly, anything else goes to Spring's
+ * {@link JsonDeserializer} configured from the same properties.
+ */
+public class NotificationDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return NotificationRequestCodec.isBinary(data) ? decode(topic, data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return NotificationRequestCodec.isBinary(data) ? decode(topic, data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static Object decode(String topic, byte[] data) {
+        try {
+            return NotificationRequestCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode binary notification record from " + topic, e);
+        }
+    }
+}
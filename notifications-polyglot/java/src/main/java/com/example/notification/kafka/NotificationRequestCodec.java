@@ -0,0 +1,500 @@
+package com.example.notification.kafka;
+
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.Priority;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a {@link NotificationRequest} Kafka record: a magic
+ * byte that no JSON document starts with, a schema version, then the fields in
+ * a fixed order with varint lengths. Known channel names are written as one
+ * byte and decode to shared constants, recipient ids are front coded against
+ * the previous id (broadcast lists are mostly "user123", "user124", ...), and
+ * metadata values carry a type tag so they decode to the same types Jackson
+ * would produce, without reflection.
+ *
+ * <p>Fields sendAt and delay are not carried, as in the JSON records. Metadata
+ * values other than maps, collections, strings, booleans and numbers are
+ * rejected with {@link IllegalArgumentException}, so the caller can fall back
+ * to JSON.
+ */
+public final class NotificationRequestCodec {
+
+    public static final byte MAGIC = 0x00;
+    public static final byte VERSION = 1;
+
+    // Append only: the index is the wire code. Readers must know a code before writers use it
+    private static final String[] CHANNELS = {"email", "sms", "push"};
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int LIST = 7;
+    private static final int MAP = 8;
+    private static final int BIG_INTEGER = 9;
+    private static final int BIG_DECIMAL = 10;
+
+    private NotificationRequestCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(NotificationRequest request) {
+        Writer out = new Writer(64 + 16 * size(request.getRecipientIds()) + length(request.getMessage()));
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeChannels(out, request.getChannels());
+        writeRecipientIds(out, request.getRecipientIds());
+        out.writeString(request.getMessage());
+        out.writeString(request.getTemplateId());
+        writeRecipientAttributes(out, request.getRecipientAttributes());
+        if (request.getMetadata() == null) {
+            out.writeVarint(NULL);
+        } else {
+            writeValue(out, request.getMetadata());
+        }
+        out.writeString(request.getTenantId());
+        out.write(request.getPriority() == null ? 0 : request.getPriority().ordinal() + 1);
+        return out.toByteArray();
+    }
+
+    public static NotificationRequest decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Not a binary notification record");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported notification record version " + data[1]);
+        }
+        Reader in = new Reader(data, 2);
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(readChannels(in));
+        request.setRecipientIds(readRecipientIds(in));
+        request.setMessage(in.readString());
+        request.setTemplateId(in.readString());
+        request.setRecipientAttributes(readRecipientAttributes(in));
+        request.setMetadata(castMap(readValue(in)));
+        request.setTenantId(in.readString());
+        int priority = in.read();
+        if (priority > Priority.values().length) {
+            throw new IllegalArgumentException("Unknown priority " + priority);
+        }
+        request.setPriority(priority == 0 ? null : Priority.values()[priority - 1]);
+        if (in.position != data.length) {
+            throw new IllegalArgumentException("Trailing bytes in notification record");
+        }
+        return request;
+    }
+
+    // Sizes and counts are written plus one, so 0 means null
+
+    private static void writeChannels(Writer out, List<String> channels) {
+        if (channels == null) {
+            out.writeVarint(0);
+            return;
+        }
+        out.writeVarint(channels.size() + 1);
+        for (String channel : channels) {
+            int code = channelCode(channel);
+            out.writeVarint(code + 1);
+            if (code < 0) {
+                out.writeString(channel);
+            }
+        }
+    }
+
+    private static int channelCode(String channel) {
+        for (int i = 0; i < CHANNELS.length; i++) {
+            if (CHANNELS[i].equals(channel)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> readChannels(Reader in) {
+        int size = in.readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<String> channels = new ArrayList<>(in.checkCount(size, 1));
+        for (int i = 0; i < size; i++) {
+            int code = in.readVarint();
+            if (code > CHANNELS.length) {
+                throw new IllegalArgumentException("Unknown channel code " + code);
+            }
+            channels.add(code == 0 ? in.readString() : CHANNELS[code - 1]);
+        }
+        return channels;
+    }
+
+    private static void writeRecipientIds(Writer out, List<String> recipientIds) {
+        if (recipientIds == null) {
+            out.writeVarint(0);
+            return;
+        }
+        out.writeVarint(recipientIds.size() + 1);
+        String previous = "";
+        for (String id : recipientIds) {
+            if (id == null) {
+                out.writeVarint(0);
+                out.writeString(null);
+                previous = "";
+                continue;
+            }
+            int shared = sharedPrefix(previous, id);
+            out.writeVarint(shared);
+            out.writeString(shared == 0 ? id : id.substring(shared));
+            previous = id;
+        }
+    }
+
+    private static List<String> readRecipientIds(Reader in) {
+        int size = in.readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        // Each id is at least a prefix length and a string length
+        List<String> recipientIds = new ArrayList<>(in.checkCount(size, 2));
+        String previous = "";
+        for (int i = 0; i < size; i++) {
+            int shared = in.readVarint();
+            String suffix = in.readString();
+            if (shared > previous.length()) {
+                throw new IllegalArgumentException("Recipient id prefix out of range");
+            }
+            String id = suffix == null ? null : shared == 0 ? suffix : previous.substring(0, shared).concat(suffix);
+            recipientIds.add(id);
+            previous = id == null ? "" : id;
+        }
+        return recipientIds;
+    }
+
+    private static int sharedPrefix(String previous, String id) {
+        int max = Math.min(previous.length(), id.length());
+        int shared = 0;
+        while (shared < max && previous.charAt(shared) == id.charAt(shared)) {
+            shared++;
+        }
+        // Never split a surrogate pair, the suffix must be valid UTF-16 on its own
+        if (shared > 0 && Character.isHighSurrogate(id.charAt(shared - 1))) {
+            shared--;
+        }
+        return shared;
+    }
+
+    private static void writeRecipientAttributes(Writer out, Map<String, Map<String, String>> attributes) {
+        if (attributes == null) {
+            out.writeVarint(0);
+            return;
+        }
+        out.writeVarint(attributes.size() + 1);
+        for (Map.Entry<String, Map<String, String>> recipient : attributes.entrySet()) {
+            out.writeString(recipient.getKey());
+            Map<String, String> values = recipient.getValue();
+            if (values == null) {
+                out.writeVarint(0);
+                continue;
+            }
+            out.writeVarint(values.size() + 1);
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                out.writeString(value.getKey());
+                out.writeString(value.getValue());
+            }
+        }
+    }
+
+    private static Map<String, Map<String, String>> readRecipientAttributes(Reader in) {
+        int size = in.readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Map<String, String>> attributes = new LinkedHashMap<>(capacity(in.checkCount(size, 2)));
+        for (int i = 0; i < size; i++) {
+            String recipientId = in.readString();
+            int count = in.readVarint() - 1;
+            Map<String, String> values = null;
+            if (count >= 0) {
+                values = new LinkedHashMap<>(capacity(in.checkCount(count, 2)));
+                for (int j = 0; j < count; j++) {
+                    values.put(in.readString(), in.readString());
+                }
+            }
+            attributes.put(recipientId, values);
+        }
+        return attributes;
+    }
+
+    private static void writeValue(Writer out, Object value) {
+        if (value == null) {
+            out.writeVarint(NULL);
+        } else if (value instanceof String string) {
+            out.writeVarint(STRING);
+            out.writeString(string);
+        } else if (value instanceof Boolean bool) {
+            out.writeVarint(bool ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeVarint(INT);
+            out.writeZigZag(((Number) value).longValue());
+        } else if (value instanceof Long number) {
+            out.writeVarint(LONG);
+            out.writeZigZag(number);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeVarint(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof BigInteger number) {
+            out.writeVarint(BIG_INTEGER);
+            out.writeString(number.toString());
+        } else if (value instanceof BigDecimal number) {
+            out.writeVarint(BIG_DECIMAL);
+            out.writeString(number.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeVarint(MAP);
+            out.writeVarint(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new IllegalArgumentException("Unsupported metadata key " + entry.getKey());
+                }
+                out.writeString(key);
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Collection<?> list) {
+            out.writeVarint(LIST);
+            out.writeVarint(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported metadata value of type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(Reader in) {
+        int tag = in.readVarint();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                return (int) in.readZigZag();
+            case LONG:
+                return in.readZigZag();
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case STRING:
+                return in.readString();
+            case BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case LIST: {
+                int size = in.readVarint();
+                List<Object> list = new ArrayList<>(in.checkCount(size, 1));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = in.readVarint();
+                Map<String, Object> map = new LinkedHashMap<>(capacity(in.checkCount(size, 2)));
+                for (int i = 0; i < size; i++) {
+                    String key = in.readString();
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown metadata value tag " + tag);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        if (value != null && !(value instanceof Map)) {
+            throw new IllegalArgumentException("Metadata must be an object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static int size(List<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void write(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarint(int value) {
+            writeVarint(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        // Length in UTF-8 bytes plus one, so 0 means null
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            int length = value.length();
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = value.charAt(i) < 0x80;
+            }
+            if (ascii) {
+                writeVarint(length + 1);
+                ensure(length);
+                for (int i = 0; i < length; i++) {
+                    buffer[position++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int read() {
+            check(1);
+            return data[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            long value = readVarintLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Varint out of range");
+            }
+            return (int) value;
+        }
+
+        long readVarintLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readZigZag() {
+            long value = readVarintLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readLong() {
+            check(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            check(length);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Checks that {@code count} elements of at least {@code minBytes} each fit
+         * in the bytes left, so a corrupt count fails here instead of sizing a
+         * collection far larger than the record.
+         */
+        int checkCount(int count, int minBytes) {
+            if ((long) count * minBytes > data.length - position) {
+                throw new IllegalArgumentException("Truncated notification record");
+            }
+            return count;
+        }
+
+        private void check(int bytes) {
+            if (bytes > data.length - position) {
+                throw new IllegalArgumentException("Truncated notification record");
+            }
+        }
+    }
+}
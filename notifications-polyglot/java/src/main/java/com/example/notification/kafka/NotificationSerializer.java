@@ -0,0 +1,65 @@
+package com.example.notification.kafka;
+
+import com.example.notification.dto.NotificationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Value serializer for every topic. With {@code notification.payload.format}
+ * set to {@code binary}, {@link NotificationRequest} records are written with
+ * {@link NotificationRequestCodec}; everything else, and requests whose
+ * metadata the codec cannot represent, is written by Spring's
+ * {@link JsonSerializer} configured from the same properties. The default is
+ * {@code json}, which consumers older than {@link NotificationDeserializer}'s
+ * binary support can still read; switch to binary once every consumer is upgraded.
+ */
+@Slf4j
+public class NotificationSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "notification.payload.format";
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private boolean binary;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        binary = format != null && "binary".equals(format.toString().toLowerCase(Locale.ROOT));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        byte[] encoded = encode(data);
+        return encoded != null ? encoded : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        // Binary records carry no type headers; the deserializer recognizes them by their first byte
+        byte[] encoded = encode(data);
+        return encoded != null ? encoded : json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private byte[] encode(Object data) {
+        if (!binary || !(data instanceof NotificationRequest request)) {
+            return null;
+        }
+        try {
+            return NotificationRequestCodec.encode(request);
+        } catch (IllegalArgumentException e) {
+            log.debug("Writing notification record as JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.notification.repository;
+
+/**
+ * Result of a channel status write: the aggregate status before and after,
+ * and the row version the write produced. {@code previousStatus} is null for
+ * a newly created notification.
+ */
+public record ChannelStatusUpdate(String notificationId, String previousStatus, String status, long version) {
+}
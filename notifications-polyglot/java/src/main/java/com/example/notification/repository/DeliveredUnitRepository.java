@@ -0,0 +1,9 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.DeliveredUnit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeliveredUnitRepository extends JpaRepository<DeliveredUnit, DeliveredUnit.Key>, DeliveredUnitRepositoryCustom {
+}
@@ -0,0 +1,21 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.DeliveredUnit;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface DeliveredUnitRepositoryCustom {
+
+    /**
+     * Inserts the units in one JDBC batch; units already checkpointed are left as they are.
+     */
+    void saveUnits(Collection<DeliveredUnit> units);
+
+    /**
+     * @return unit key to record offset for every unit of the partition at or above {@code fromOffset}
+     */
+    Map<String, Long> findUnits(String topic, int partition, long fromOffset);
+
+    int deleteBelow(String topic, int partition, long offset);
+}
@@ -0,0 +1,55 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.DeliveredUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class DeliveredUnitRepositoryCustomImpl implements DeliveredUnitRepositoryCustom {
+
+    private static final String INSERT_UNIT = """
+            INSERT INTO notification_delivered_units (topic, partition_id, unit_key, record_offset)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (topic, partition_id, unit_key) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveUnits(Collection<DeliveredUnit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(units.size());
+        for (DeliveredUnit unit : units) {
+            rows.add(new Object[]{unit.getId().getTopic(), unit.getId().getPartition(), unit.getId().getUnitKey(),
+                    unit.getRecordOffset()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_UNIT, rows);
+    }
+
+    @Override
+    public Map<String, Long> findUnits(String topic, int partition, long fromOffset) {
+        Map<String, Long> units = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT unit_key, record_offset FROM notification_delivered_units
+                WHERE topic = ? AND partition_id = ? AND record_offset >= ?
+                """, rs -> {
+            units.put(rs.getString("unit_key"), rs.getLong("record_offset"));
+        }, topic, partition, fromOffset);
+        return units;
+    }
+
+    @Override
+    public int deleteBelow(String topic, int partition, long offset) {
+        return jdbcTemplate.update(
+                "DELETE FROM notification_delivered_units WHERE topic = ? AND partition_id = ? AND record_offset < ?",
+                topic, partition, offset);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Binds the key to a notification unless it is already bound to one younger
+     * than {@code ttlSeconds}. Ages are measured on the database clock, like
+     * created_at itself. A concurrent claim of the same key blocks on the
+     * primary key until the other transaction finishes.
+     *
+     * @return 1 if this call owns the key, 0 if another notification does
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_idempotency_keys (idempotency_key, notification_id, request_hash, created_at)
+            VALUES (:key, :notificationId, :requestHash, NOW())
+            ON CONFLICT (idempotency_key) DO UPDATE
+                SET notification_id = EXCLUDED.notification_id, request_hash = EXCLUDED.request_hash,
+                    created_at = EXCLUDED.created_at
+                WHERE notification_idempotency_keys.created_at < NOW() - :ttlSeconds * INTERVAL '1 second'
+            """, nativeQuery = true)
+    int claim(@Param("key") String key, @Param("notificationId") String notificationId,
+              @Param("requestHash") String requestHash, @Param("ttlSeconds") long ttlSeconds);
+
+    @Query(value = """
+            SELECT * FROM notification_idempotency_keys
+            WHERE idempotency_key = :key AND created_at >= NOW() - :ttlSeconds * INTERVAL '1 second'
+            """, nativeQuery = true)
+    Optional<IdempotencyKey> findLive(@Param("key") String key, @Param("ttlSeconds") long ttlSeconds);
+
+    @Modifying
+    @Query(value = "DELETE FROM notification_idempotency_keys WHERE created_at < NOW() - :ttlSeconds * INTERVAL '1 second'",
+            nativeQuery = true)
+    int deleteExpired(@Param("ttlSeconds") long ttlSeconds);
+}
@@ -0,0 +1,85 @@
+package com.example.notification.repository;
+
+import com.example.notification.config.StatusProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills notification_status.channel_statuses from the legacy
+ * notification_channel_status element-collection table. Runs once at startup,
+ * before this node's Kafka listeners and web server start, in small batches
+ * that each commit on their own so no statement holds row locks for long while
+ * other nodes are already serving traffic. A channel one of those nodes has
+ * written since keeps its newer status; legacy rows only fill in the missing
+ * ones. Once it reports nothing left to copy the legacy table can be dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.status.legacy-migration.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyChannelStatusMigrator implements SmartLifecycle {
+
+    // Ahead of the listener containers and the web server, which start in late phases
+    private static final int PHASE = Integer.MIN_VALUE;
+
+    private static final String BACKFILL_BATCH = """
+            WITH batch AS (
+                SELECT s.notification_id FROM notification_status s
+                WHERE EXISTS (SELECT 1 FROM notification_channel_status c
+                              WHERE c.notification_id = s.notification_id
+                                AND NOT jsonb_exists(COALESCE(s.channel_statuses, '{}'::jsonb), c.channel))
+                LIMIT ?
+            )
+            UPDATE notification_status s SET channel_statuses = (
+                SELECT jsonb_object_agg(c.channel, c.status) FROM notification_channel_status c
+                WHERE c.notification_id = s.notification_id) || COALESCE(s.channel_statuses, '{}'::jsonb)
+            FROM batch WHERE s.notification_id = batch.notification_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatusProperties properties;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        migrate();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void migrate() {
+        Boolean legacyTableExists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('notification_channel_status') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacyTableExists)) {
+            log.info("No legacy notification_channel_status table, nothing to migrate");
+            return;
+        }
+
+        int batchSize = Math.max(1, properties.getLegacyMigration().getBatchSize());
+        long migrated = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(BACKFILL_BATCH, batchSize);
+            migrated += updated;
+        } while (updated > 0);
+        log.info("Migrated channel statuses of {} notifications; notification_channel_status can now be dropped", migrated);
+    }
+}
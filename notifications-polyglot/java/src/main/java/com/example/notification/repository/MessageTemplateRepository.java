@@ -0,0 +1,23 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.MessageTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MessageTemplateRepository extends JpaRepository<MessageTemplate, String> {
+
+    /**
+     * @return 1 if the template was created, 0 if the id is already registered
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_templates (template_id, body, created_at)
+            VALUES (:templateId, :body, NOW())
+            ON CONFLICT (template_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("templateId") String templateId, @Param("body") String body);
+}
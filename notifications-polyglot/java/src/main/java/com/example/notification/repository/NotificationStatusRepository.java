@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Map;
 
 @Repository
-public interface NotificationStatusRepository extends JpaRepository<NotificationStatus, String> {
+public interface NotificationStatusRepository extends JpaRepository<NotificationStatus, String>, NotificationStatusRepositoryCustom {
     
     @Query("SELECT s.status, COUNT(s) FROM NotificationStatus s GROUP BY s.status")
     List<Object[]> countByStatus();
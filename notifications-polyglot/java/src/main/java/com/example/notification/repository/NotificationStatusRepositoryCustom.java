@@ -0,0 +1,37 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.NotificationStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface NotificationStatusRepositoryCustom {
+
+    /**
+     * Inserts new ENQUEUED rows in one JDBC batch (version 0), bypassing the
+     * persistence context; joins the caller's transaction.
+     */
+    void insertInitialStatuses(List<NotificationStatus> statuses);
+
+    /**
+     * Merges channel transitions for many notifications in one statement,
+     * recomputing each aggregate in SQL. Notifications that do not exist are
+     * skipped and absent from the result.
+     */
+    List<ChannelStatusUpdate> mergeChannelStatuses(Map<String, Map<String, String>> transitions);
+
+    /**
+     * Sets one channel's status and recomputes the aggregate in a single UPDATE,
+     * returning the new aggregate, or empty if the notification does not exist.
+     */
+    Optional<ChannelStatusUpdate> updateChannelStatus(String notificationId, String channel, String status);
+
+    /**
+     * Sets the aggregate status of the notifications still in {@code from} to
+     * {@code to}, leaving channel statuses alone; the others are skipped and
+     * absent from the result.
+     */
+    List<ChannelStatusUpdate> transitionStatuses(Collection<String> notificationIds, String from, String to);
+}
@@ -0,0 +1,129 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.NotificationStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class NotificationStatusRepositoryCustomImpl implements NotificationStatusRepositoryCustom {
+
+    // Aggregate over the post-merge jsonb value; keep in sync with NotificationStatusService.aggregateStatus
+    private static final String SET_MERGED_STATUS = """
+                channel_statuses = %1$s,
+                status = CASE
+                    WHEN NOT EXISTS (SELECT 1 FROM jsonb_each_text(%1$s) c WHERE UPPER(c.value) <> 'COMPLETED')
+                        THEN 'COMPLETED'
+                    WHEN EXISTS (SELECT 1 FROM jsonb_each_text(%1$s) c WHERE UPPER(c.value) = 'FAILED')
+                        THEN 'PARTIAL_FAILURE'
+                    ELSE 'PROCESSING' END,
+                version = COALESCE(s.version, 0) + 1,
+                updated_at = NOW()
+            """;
+
+    // One round trip for a whole flush. Rows are locked in id order by the "previous"
+    // CTE, which also captures the aggregate before the merge for metrics.
+    private static final String MERGE_CHANNEL_STATUSES = """
+            WITH patch AS (
+                SELECT * FROM unnest(?::text[], ?::text[]) AS p(notification_id, delta)
+            ), previous AS (
+                SELECT s.notification_id, s.status FROM notification_status s
+                JOIN patch p ON p.notification_id = s.notification_id
+                ORDER BY s.notification_id
+                FOR UPDATE OF s
+            )
+            UPDATE notification_status s SET
+            %s
+            FROM patch p JOIN previous o ON o.notification_id = p.notification_id
+            WHERE s.notification_id = p.notification_id
+            RETURNING s.notification_id, o.status AS previous_status, s.status, s.version
+            """.formatted(SET_MERGED_STATUS.formatted("(COALESCE(s.channel_statuses, '{}'::jsonb) || p.delta::jsonb)"));
+
+    private static final String INSERT_INITIAL_STATUS = """
+            INSERT INTO notification_status (notification_id, status, channel_statuses, chunk_count, version, created_at, updated_at)
+            VALUES (?, ?, ?::jsonb, ?, 0, NOW(), NOW())
+            """;
+
+    private static final String TRANSITION_STATUSES = """
+            UPDATE notification_status s SET
+                status = ?,
+                version = COALESCE(s.version, 0) + 1,
+                updated_at = NOW()
+            WHERE s.notification_id = ANY(?) AND s.status = ?
+            RETURNING s.notification_id, s.status, s.version
+            """;
+
+    private static final RowMapper<ChannelStatusUpdate> UPDATE_MAPPER = (rs, rowNum) -> new ChannelStatusUpdate(
+            rs.getString("notification_id"), rs.getString("previous_status"), rs.getString("status"), rs.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertInitialStatuses(List<NotificationStatus> statuses) {
+        List<Object[]> rows = new ArrayList<>(statuses.size());
+        for (NotificationStatus status : statuses) {
+            rows.add(new Object[]{status.getNotificationId(), status.getStatus(), toJson(status.getChannelStatuses()),
+                    status.getChunkCount()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_INITIAL_STATUS, rows);
+    }
+
+    @Override
+    public List<ChannelStatusUpdate> mergeChannelStatuses(Map<String, Map<String, String>> transitions) {
+        if (transitions.isEmpty()) {
+            return List.of();
+        }
+        String[] notificationIds = new String[transitions.size()];
+        String[] patches = new String[transitions.size()];
+        int i = 0;
+        for (Map.Entry<String, Map<String, String>> entry : transitions.entrySet()) {
+            notificationIds[i] = entry.getKey();
+            patches[i] = toJson(entry.getValue());
+            i++;
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MERGE_CHANNEL_STATUSES);
+            ps.setArray(1, con.createArrayOf("text", notificationIds));
+            ps.setArray(2, con.createArrayOf("text", patches));
+            return ps;
+        }, UPDATE_MAPPER);
+    }
+
+    @Override
+    public Optional<ChannelStatusUpdate> updateChannelStatus(String notificationId, String channel, String status) {
+        return mergeChannelStatuses(Map.of(notificationId, Map.of(channel, status))).stream().findFirst();
+    }
+
+    @Override
+    public List<ChannelStatusUpdate> transitionStatuses(Collection<String> notificationIds, String from, String to) {
+        if (notificationIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(TRANSITION_STATUSES);
+            ps.setString(1, to);
+            ps.setArray(2, con.createArrayOf("text", notificationIds.toArray()));
+            ps.setString(3, from);
+            return ps;
+        }, (rs, rowNum) -> new ChannelStatusUpdate(rs.getString("notification_id"), from, rs.getString("status"),
+                rs.getLong("version")));
+    }
+
+    private String toJson(Map<String, String> channels) {
+        try {
+            return objectMapper.writeValueAsString(channels);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode channel statuses " + channels, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.OutboxEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Inserts all events in one JDBC batch; joins the caller's transaction.
+     */
+    void append(List<OutboxEvent> events);
+
+    /**
+     * Claims up to {@code limit} of the oldest unclaimed events for {@code leaseMs}
+     * in one statement, skipping rows another relay holds or is claiming right
+     * now. No lock outlives the statement, so publishing happens outside any
+     * transaction. Events come back in id order.
+     */
+    List<OutboxEvent> claimBatch(int limit, long leaseMs);
+
+    /**
+     * Gives up the claim on events that could not be published, so the next
+     * pass picks them up again without waiting for the lease to expire.
+     */
+    void releaseClaims(Collection<Long> ids);
+
+    /**
+     * Takes an event that can never be published out of the queue, keeping the
+     * row and the reason for inspection.
+     */
+    void quarantine(long id, String error);
+
+    void deleteByIds(Collection<Long> ids);
+}
@@ -0,0 +1,116 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+
+    private static final String INSERT_EVENT = """
+            INSERT INTO notification_outbox (topic, record_key, headers, payload, created_at)
+            VALUES (?, ?, ?::jsonb, ?::jsonb, NOW())
+            """;
+
+    private static final String CLAIM_BATCH = """
+            UPDATE notification_outbox SET claimed_until = NOW() + ? * INTERVAL '1 millisecond'
+            WHERE id IN (
+                SELECT id FROM notification_outbox
+                WHERE quarantined_at IS NULL AND (claimed_until IS NULL OR claimed_until < NOW())
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, topic, record_key, headers, payload, created_at
+            """;
+
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final RowMapper<OutboxEvent> eventMapper = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"), rs.getString("topic"), rs.getString("record_key"), readHeaders(rs.getString("headers")),
+            rs.getString("payload"), rs.getTimestamp("created_at").toLocalDateTime());
+
+    @Override
+    public void append(List<OutboxEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            rows.add(new Object[]{event.getTopic(), event.getRecordKey(), writeHeaders(event.getHeaders()), event.getPayload()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+    }
+
+    @Override
+    public List<OutboxEvent> claimBatch(int limit, long leaseMs) {
+        List<OutboxEvent> events = new ArrayList<>(jdbcTemplate.query(CLAIM_BATCH, eventMapper, leaseMs, limit));
+        // RETURNING does not keep the subquery's order
+        events.sort(Comparator.comparing(OutboxEvent::getId));
+        return events;
+    }
+
+    @Override
+    public void releaseClaims(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE notification_outbox SET claimed_until = NULL WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    @Override
+    public void quarantine(long id, String error) {
+        jdbcTemplate.update("UPDATE notification_outbox SET quarantined_at = NOW(), claimed_until = NULL, last_error = ? WHERE id = ?",
+                error, id);
+    }
+
+    @Override
+    public void deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM notification_outbox WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    private String writeHeaders(Map<String, String> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(headers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox headers", e);
+        }
+    }
+
+    private Map<String, String> readHeaders(String json) {
+        if (json == null) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, HEADERS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox headers: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.notification.repository;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Recipient indexes that succeeded or failed in one dispatch of a channel.
+ */
+public record RecipientOutcomeDelta(String notificationId, String channel, RoaringBitmap succeeded, RoaringBitmap failed) {
+}
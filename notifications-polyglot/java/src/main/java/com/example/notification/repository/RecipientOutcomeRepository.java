@@ -0,0 +1,13 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.RecipientOutcome;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecipientOutcomeRepository extends JpaRepository<RecipientOutcome, RecipientOutcome.Key>, RecipientOutcomeRepositoryCustom {
+
+    List<RecipientOutcome> findByIdNotificationId(String notificationId);
+}
@@ -0,0 +1,29 @@
+package com.example.notification.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+public interface RecipientOutcomeRepositoryCustom {
+
+    /**
+     * Stores each notification's recipient list in one JDBC batch.
+     */
+    void saveRecipients(Map<String, List<String>> recipientIdsByNotification);
+
+    /**
+     * ORs each delta into its (notification, channel) bitmaps, creating rows as
+     * needed. A recipient that succeeded on any attempt is removed from the
+     * failed bitmap. Must run inside a transaction.
+     */
+    void mergeOutcomes(Collection<RecipientOutcomeDelta> deltas);
+
+    OptionalInt recipientCount(String notificationId);
+
+    /**
+     * Resolves recipient indexes back to ids; indexes out of range are absent
+     * from the result.
+     */
+    Map<Integer, String> findRecipientIds(String notificationId, int[] indexes);
+}
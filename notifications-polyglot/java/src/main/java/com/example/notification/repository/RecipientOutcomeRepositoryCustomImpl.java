@@ -0,0 +1,151 @@
+package com.example.notification.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+class RecipientOutcomeRepositoryCustomImpl implements RecipientOutcomeRepositoryCustom {
+
+    private record Key(String notificationId, String channel) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::notificationId).thenComparing(Key::channel);
+
+    private static final String INSERT_RECIPIENTS = """
+            INSERT INTO notification_recipients (notification_id, recipient_ids) VALUES (?, ?)
+            ON CONFLICT (notification_id) DO NOTHING
+            """;
+
+    private static final String INSERT_IF_ABSENT = """
+            INSERT INTO notification_recipient_outcomes (notification_id, channel, succeeded, failed, updated_at)
+            SELECT k.notification_id, k.channel, ''::bytea, ''::bytea, NOW()
+            FROM unnest(?::text[], ?::text[]) AS k(notification_id, channel)
+            ORDER BY 1, 2
+            ON CONFLICT (notification_id, channel) DO NOTHING
+            """;
+
+    // Locked in key order so concurrent merges cannot deadlock
+    private static final String LOCK_OUTCOMES = """
+            SELECT o.notification_id, o.channel, o.succeeded, o.failed
+            FROM notification_recipient_outcomes o
+            JOIN unnest(?::text[], ?::text[]) AS k(notification_id, channel)
+                ON k.notification_id = o.notification_id AND k.channel = o.channel
+            ORDER BY o.notification_id, o.channel
+            FOR UPDATE OF o
+            """;
+
+    private static final String UPDATE_OUTCOME = """
+            UPDATE notification_recipient_outcomes SET succeeded = ?, failed = ?, updated_at = NOW()
+            WHERE notification_id = ? AND channel = ?
+            """;
+
+    // Postgres arrays are 1-based, recipient indexes are 0-based
+    private static final String FIND_RECIPIENT_IDS = """
+            SELECT i.idx, r.recipient_ids[i.idx + 1] AS recipient_id
+            FROM notification_recipients r, unnest(?::int[]) AS i(idx)
+            WHERE r.notification_id = ? AND i.idx < cardinality(r.recipient_ids)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void saveRecipients(Map<String, List<String>> recipientIdsByNotification) {
+        List<Map.Entry<String, List<String>>> entries = new ArrayList<>(recipientIdsByNotification.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_RECIPIENTS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, entries.get(i).getKey());
+                ps.setArray(2, ps.getConnection().createArrayOf("text", entries.get(i).getValue().toArray()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    @Override
+    public void mergeOutcomes(Collection<RecipientOutcomeDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Fold duplicate keys first so each row is read and written once
+        Map<Key, RecipientOutcomeDelta> merged = new TreeMap<>(KEY_ORDER);
+        for (RecipientOutcomeDelta delta : deltas) {
+            merged.merge(new Key(delta.notificationId(), delta.channel()), delta, (a, b) -> new RecipientOutcomeDelta(
+                    a.notificationId(), a.channel(), RoaringBitmap.or(a.succeeded(), b.succeeded()), RoaringBitmap.or(a.failed(), b.failed())));
+        }
+        String[] notificationIds = new String[merged.size()];
+        String[] channels = new String[merged.size()];
+        int i = 0;
+        for (Key key : merged.keySet()) {
+            notificationIds[i] = key.notificationId();
+            channels[i] = key.channel();
+            i++;
+        }
+
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_IF_ABSENT);
+            ps.setArray(1, con.createArrayOf("text", notificationIds));
+            ps.setArray(2, con.createArrayOf("text", channels));
+            return ps;
+        });
+
+        List<Object[]> updates = new ArrayList<>(merged.size());
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_OUTCOMES);
+            ps.setArray(1, con.createArrayOf("text", notificationIds));
+            ps.setArray(2, con.createArrayOf("text", channels));
+            return ps;
+        }, rs -> {
+            Key key = new Key(rs.getString("notification_id"), rs.getString("channel"));
+            RecipientOutcomeDelta delta = merged.get(key);
+            RoaringBitmap succeeded = RoaringBitmap.or(RecipientBitmaps.fromBytes(rs.getBytes("succeeded")), delta.succeeded());
+            RoaringBitmap failed = RoaringBitmap.or(RecipientBitmaps.fromBytes(rs.getBytes("failed")), delta.failed());
+            failed.andNot(succeeded);
+            updates.add(new Object[]{
+                    RecipientBitmaps.toBytes(succeeded), RecipientBitmaps.toBytes(failed), key.notificationId(), key.channel()});
+        });
+        jdbcTemplate.batchUpdate(UPDATE_OUTCOME, updates);
+    }
+
+    @Override
+    public OptionalInt recipientCount(String notificationId) {
+        List<Integer> counts = jdbcTemplate.queryForList(
+                "SELECT cardinality(recipient_ids) FROM notification_recipients WHERE notification_id = ?",
+                Integer.class, notificationId);
+        return counts.isEmpty() ? OptionalInt.empty() : OptionalInt.of(counts.get(0));
+    }
+
+    @Override
+    public Map<Integer, String> findRecipientIds(String notificationId, int[] indexes) {
+        Integer[] boxed = new Integer[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            boxed[i] = indexes[i];
+        }
+        Map<Integer, String> recipientIds = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_RECIPIENT_IDS);
+            ps.setArray(1, con.createArrayOf("int4", boxed));
+            ps.setString(2, notificationId);
+            return ps;
+        }, rs -> {
+            recipientIds.put(rs.getInt("idx"), rs.getString("recipient_id"));
+        });
+        return recipientIds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.ScheduledNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduledNotificationRepository extends JpaRepository<ScheduledNotification, String>,
+        ScheduledNotificationRepositoryCustom {
+
+    /**
+     * @return 1 if the schedule was pending and is now removed, 0 if it already fired or never existed
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notification_schedules WHERE notification_id = :id", nativeQuery = true)
+    int deleteSchedule(@Param("id") String notificationId);
+}
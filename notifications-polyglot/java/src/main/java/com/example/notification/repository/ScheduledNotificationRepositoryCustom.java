@@ -0,0 +1,39 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.ScheduledNotification;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScheduledNotificationRepositoryCustom {
+
+    /**
+     * Inserts all schedules in one JDBC batch; joins the caller's transaction.
+     */
+    void insertSchedules(List<ScheduledNotification> schedules);
+
+    /**
+     * Keyset page of schedules due before {@code before}, ordered by due time
+     * then id and starting after ({@code afterDueAt}, {@code afterId}). Only the
+     * id and due time are read.
+     */
+    List<ScheduledNotification> findDue(Instant afterDueAt, String afterId, Instant before, int limit);
+
+    /**
+     * Claims up to {@code limit} unclaimed schedules due before {@code before},
+     * earliest first, until {@code leaseMs} after each one's due time. Rows locked
+     * by another node's claim are skipped, so each row is claimed by one node.
+     * Only the id and due time are read.
+     */
+    List<ScheduledNotification> claimDue(Instant before, long leaseMs, int limit);
+
+    /**
+     * Deletes the given schedules and appends their records to the outbox in
+     * one statement. Ids already fired or cancelled, here or on another node,
+     * are skipped.
+     *
+     * @return the ids that were moved
+     */
+    List<String> moveToOutbox(Collection<String> notificationIds);
+}
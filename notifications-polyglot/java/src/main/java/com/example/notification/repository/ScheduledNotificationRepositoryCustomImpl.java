@@ -0,0 +1,96 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.ScheduledNotification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ScheduledNotificationRepositoryCustomImpl implements ScheduledNotificationRepositoryCustom {
+
+    private static final String INSERT_SCHEDULE = """
+            INSERT INTO notification_schedules (notification_id, due_at, events, claimed_until)
+            VALUES (?, ?, ?::jsonb, ?)
+            """;
+
+    private static final String FIND_DUE = """
+            SELECT notification_id, due_at FROM notification_schedules
+            WHERE (due_at, notification_id) > (?, ?) AND due_at < ?
+            ORDER BY due_at, notification_id
+            LIMIT ?
+            """;
+
+    private static final String CLAIM_DUE = """
+            UPDATE notification_schedules SET claimed_until = due_at + ? * INTERVAL '1 millisecond'
+            WHERE notification_id IN (
+                SELECT notification_id FROM notification_schedules
+                WHERE claimed_until IS NULL AND due_at < ?
+                ORDER BY due_at, notification_id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING notification_id, due_at
+            """;
+
+    // Data-modifying CTEs always run to completion, so the outbox insert happens
+    // even though only the deleted ids are selected
+    private static final String MOVE_TO_OUTBOX = """
+            WITH claimed AS (
+                DELETE FROM notification_schedules WHERE notification_id = ANY(?)
+                RETURNING notification_id, events
+            ), moved AS (
+                INSERT INTO notification_outbox (topic, record_key, headers, payload, created_at)
+                SELECT e->>'topic', e->>'recordKey', NULLIF(e->'headers', 'null'::jsonb), e->'payload', NOW()
+                FROM claimed c, jsonb_array_elements(c.events) e
+            )
+            SELECT notification_id FROM claimed
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertSchedules(List<ScheduledNotification> schedules) {
+        List<Object[]> rows = new ArrayList<>(schedules.size());
+        for (ScheduledNotification schedule : schedules) {
+            Timestamp claimedUntil = schedule.getClaimedUntil() == null ? null : Timestamp.from(schedule.getClaimedUntil());
+            rows.add(new Object[]{schedule.getNotificationId(), Timestamp.from(schedule.getDueAt()), schedule.getEvents(),
+                    claimedUntil});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SCHEDULE, rows);
+    }
+
+    @Override
+    public List<ScheduledNotification> findDue(Instant afterDueAt, String afterId, Instant before, int limit) {
+        return jdbcTemplate.query(FIND_DUE, (rs, rowNum) -> new ScheduledNotification(
+                        rs.getString("notification_id"), rs.getTimestamp("due_at").toInstant(), null),
+                Timestamp.from(afterDueAt), afterId, Timestamp.from(before), limit);
+    }
+
+    @Override
+    public List<ScheduledNotification> claimDue(Instant before, long leaseMs, int limit) {
+        List<ScheduledNotification> claimed = new ArrayList<>(jdbcTemplate.query(CLAIM_DUE, (rs, rowNum) -> new ScheduledNotification(
+                rs.getString("notification_id"), rs.getTimestamp("due_at").toInstant(), null), leaseMs, Timestamp.from(before), limit));
+        // RETURNING does not keep the subquery's order
+        claimed.sort(Comparator.comparing(ScheduledNotification::getDueAt).thenComparing(ScheduledNotification::getNotificationId));
+        return claimed;
+    }
+
+    @Override
+    public List<String> moveToOutbox(Collection<String> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MOVE_TO_OUTBOX);
+            ps.setArray(1, con.createArrayOf("text", notificationIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString("notification_id"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.StatusCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StatusCounterRepository extends JpaRepository<StatusCounter, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_status_counters (status, count) VALUES (:status, :delta)
+            ON CONFLICT (status) DO UPDATE SET count = notification_status_counters.count + EXCLUDED.count
+            """, nativeQuery = true)
+    void addToCount(@Param("status") String status, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_status_counters (status, count) VALUES (:status, :count)
+            ON CONFLICT (status) DO UPDATE SET count = EXCLUDED.count
+            """, nativeQuery = true)
+    void setCount(@Param("status") String status, @Param("count") long count);
+
+    /**
+     * Fills an empty counters table from an exact GROUP BY over the status table
+     * and does nothing once any counter exists, so every node can run it at startup.
+     *
+     * @return the number of counters written
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO notification_status_counters (status, count)
+            SELECT status, COUNT(*) FROM notification_status
+            WHERE NOT EXISTS (SELECT 1 FROM notification_status_counters)
+            GROUP BY status
+            ON CONFLICT (status) DO NOTHING
+            """, nativeQuery = true)
+    int seedIfEmpty();
+}
@@ -0,0 +1,8 @@
+package com.example.notification.resilience;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.notification.resilience;
+
+public class CallTimeoutException extends RuntimeException {
+
+    public CallTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.notification.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Isolated lane for one channel: a bounded number of in-flight provider calls
+ * plus a bounded, time-limited wait queue. When a provider degrades only its
+ * own lane fills up, and further sends are rejected instead of holding up
+ * other channels. The queue is split by priority level, each with its own
+ * depth limit, and freed slots are shared between levels by weight (see
+ * {@link WeightedSlots}), so a bulk campaign cannot starve or crowd out
+ * transactional sends. In a lane with more than one level, level 0 also has
+ * slots of its own and is never shed: it waits for a slot however long the
+ * queue, which the circuit breaker and call timeout keep short.
+ */
+public class ChannelBulkhead {
+
+    private final String channel;
+    private final int maxConcurrent;
+    private final WeightedSlots slots;
+    private final int maxQueueDepth;
+    private final long maxQueueWaitNanos;
+    private final AtomicInteger[] queued;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer queueWait;
+    private final Timer latency;
+    private final ThreadFactory threadFactory;
+
+    public ChannelBulkhead(String channel, int maxConcurrent, int maxQueueDepth, long maxQueueWaitMs, MeterRegistry meterRegistry) {
+        this(channel, maxConcurrent, maxQueueDepth, maxQueueWaitMs, new int[]{1}, 0, meterRegistry);
+    }
+
+    /**
+     * @param levelWeights  weight of each priority level, highest priority first
+     * @param reservedSlots slots only level 0 may take, capped below {@code maxConcurrent}
+     */
+    public ChannelBulkhead(String channel, int maxConcurrent, int maxQueueDepth, long maxQueueWaitMs, int[] levelWeights,
+                           int reservedSlots, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new WeightedSlots(maxConcurrent, levelWeights, levelWeights.length > 1 ? reservedSlots : 0);
+        this.queued = new AtomicInteger[levelWeights.length];
+        Arrays.setAll(queued, level -> new AtomicInteger());
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.threadFactory = Thread.ofVirtual().name("lane-" + channel + "-", 0).factory();
+        Gauge.builder("notification.lane.queue.depth", this, ChannelBulkhead::queueDepth)
+                .description("Sends waiting for a slot in the channel lane")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("notification.lane.in.flight", inFlight, AtomicInteger::get)
+                .description("Provider calls currently running in the channel lane")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("notification.lane.queue.wait")
+                .description("Time sends waited for a slot in the channel lane")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        this.latency = Timer.builder("notification.lane.latency")
+                .description("Provider call latency in the channel lane")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    public void execute(Runnable call) throws InterruptedException {
+        execute(0, call);
+    }
+
+    /**
+     * Runs {@code call} in a lane slot, waiting in the queue of its priority
+     * level (0 is highest) if needed.
+     *
+     * @throws BulkheadFullException if that queue is full or the wait times out,
+     *                               except for level 0 of a prioritized lane
+     */
+    public void execute(int level, Runnable call) throws InterruptedException {
+        int queue = Math.min(Math.max(level, 0), slots.levels() - 1);
+        boolean shed = queue > 0 || slots.levels() == 1;
+        if (queued[queue].incrementAndGet() > maxQueueDepth && shed) {
+            queued[queue].decrementAndGet();
+            throw new BulkheadFullException("Lane " + channel + " queue is full (" + maxQueueDepth + ")");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(queue, shed ? maxQueueWaitNanos : Long.MAX_VALUE);
+        } finally {
+            queued[queue].decrementAndGet();
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new BulkheadFullException("Lane " + channel + " had no free slot within " + maxQueueWaitNanos / 1_000_000 + " ms");
+        }
+        inFlight.incrementAndGet();
+        try {
+            latency.record(call);
+        } finally {
+            inFlight.decrementAndGet();
+            slots.release();
+        }
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return how many slots sends of {@code level} can hold at once
+     */
+    public int maxConcurrent(int level) {
+        return slots.slotsFor(Math.min(Math.max(level, 0), slots.levels() - 1), maxConcurrent);
+    }
+
+    public ThreadFactory threadFactory() {
+        return threadFactory;
+    }
+
+    public int queueDepth() {
+        int depth = 0;
+        for (AtomicInteger level : queued) {
+            depth += level.get();
+        }
+        return depth;
+    }
+}
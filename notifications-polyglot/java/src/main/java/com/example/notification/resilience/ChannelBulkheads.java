@@ -0,0 +1,37 @@
+package com.example.notification.resilience;
+
+import com.example.notification.config.PriorityProperties;
+import com.example.notification.config.WorkerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ChannelBulkheads {
+
+    private final WorkerProperties properties;
+    private final int[] levelWeights;
+    private final int highReservedSlots;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ChannelBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public ChannelBulkheads(WorkerProperties properties, PriorityProperties priorityProperties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.levelWeights = priorityProperties.levelWeights();
+        this.highReservedSlots = priorityProperties.getHighReservedSlots();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ChannelBulkhead forChannel(String channel) {
+        return bulkheads.computeIfAbsent(channel.toLowerCase(Locale.ROOT), key -> new ChannelBulkhead(key,
+                properties.getFanOut().concurrencyFor(key),
+                properties.getBulkhead().maxQueueDepthFor(key),
+                properties.getBulkhead().getMaxQueueWaitMs(),
+                levelWeights,
+                highReservedSlots,
+                meterRegistry));
+    }
+}
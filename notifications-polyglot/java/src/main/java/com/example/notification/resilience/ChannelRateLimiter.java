@@ -0,0 +1,114 @@
+package com.example.notification.resilience;
+
+import com.example.notification.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces provider calls per channel, and optionally per tenant within a channel,
+ * so sends run at the configured provider quota instead of bursting into 429s.
+ * Waiting is a plain sleep, which on the worker's virtual threads parks the
+ * virtual thread and frees its carrier.
+ */
+@Component
+@Slf4j
+public class ChannelRateLimiter {
+
+    private final Map<String, RateLimitProperties.ChannelLimit> limits = new HashMap<>();
+    private final Map<String, TokenBucket> channelBuckets = new HashMap<>();
+    // Bounded: tenant ids come from requests. A bucket idle longer than its burst
+    // window is full again, so evicting it and starting a new one changes nothing
+    private final Cache<String, TokenBucket> tenantBuckets;
+    private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ChannelRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.tenantBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getTenantBucketsMaxSize())
+                .expireAfterAccess(properties.getTenantBucketIdleTimeout())
+                .build();
+        properties.getChannels().forEach((channel, limit) -> {
+            String key = channel.toLowerCase(Locale.ROOT);
+            limits.put(key, limit);
+            channelBuckets.put(key, new TokenBucket(limit.getPermitsPerSecond(), burstOf(limit.getBurst(), limit.getPermitsPerSecond())));
+        });
+    }
+
+    /**
+     * Blocks the calling (virtual) thread until {@code permits} sends are allowed
+     * for the channel and tenant. Unconfigured channels return immediately.
+     */
+    public void acquire(String channel, String tenantId, int permits) throws InterruptedException {
+        String key = channel.toLowerCase(Locale.ROOT);
+        TokenBucket channelBucket = channelBuckets.get(key);
+        if (channelBucket == null) {
+            return;
+        }
+        // The tenant goes first: a channel slot taken now but used only once the tenant
+        // is ready would let the delayed send land on top of other tenants' slots
+        TokenBucket tenantBucket = tenantBucket(key, tenantId);
+        long tenantWaitNanos = tenantBucket == null ? 0 : tenantBucket.reserve(permits);
+        long waitNanos = tenantWaitNanos == 0
+                ? channelBucket.reserve(permits)
+                : channelBucket.reserve(permits, System.nanoTime() + tenantWaitNanos);
+        waitTimer(key).record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos > 0) {
+            Thread.sleep(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    /**
+     * Non-waiting variant: takes the permits only if they are available now.
+     */
+    public boolean tryAcquire(String channel, String tenantId, int permits) {
+        String key = channel.toLowerCase(Locale.ROOT);
+        TokenBucket channelBucket = channelBuckets.get(key);
+        if (channelBucket == null) {
+            return true;
+        }
+        TokenBucket tenantBucket = tenantBucket(key, tenantId);
+        if (tenantBucket != null && !tenantBucket.tryAcquire(permits)) {
+            return false;
+        }
+        if (!channelBucket.tryAcquire(permits)) {
+            // Otherwise a busy channel would drain the tenant's quota without sending anything
+            if (tenantBucket != null) {
+                tenantBucket.refund(permits);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private TokenBucket tenantBucket(String channel, String tenantId) {
+        RateLimitProperties.ChannelLimit limit = limits.get(channel);
+        if (tenantId == null || limit.getTenantPermitsPerSecond() == null) {
+            return null;
+        }
+        return tenantBuckets.get(channel + ':' + tenantId, key -> new TokenBucket(
+                limit.getTenantPermitsPerSecond(), burstOf(limit.getTenantBurst(), limit.getTenantPermitsPerSecond())));
+    }
+
+    private Timer waitTimer(String channel) {
+        return waitTimers.computeIfAbsent(channel, key -> Timer.builder("notification.ratelimit.wait")
+                .description("Time sends waited for a rate limit permit")
+                .tag("channel", key)
+                .register(meterRegistry));
+    }
+
+    private static int burstOf(Integer burst, double permitsPerSecond) {
+        return burst != null ? burst : Math.max(1, (int) Math.ceil(permitsPerSecond));
+    }
+}
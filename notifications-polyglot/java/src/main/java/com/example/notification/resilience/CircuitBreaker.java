@@ -0,0 +1,235 @@
+package com.example.notification.resilience;
+
+import com.example.notification.config.CircuitBreakerProperties;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker for one channel's provider, with a call timeout
+ * derived from recent latencies. CLOSED tracks the failure rate over the last
+ * {@code windowSize} calls and opens past the threshold; OPEN rejects calls
+ * until {@code openDurationMs} has passed; HALF_OPEN lets a few probes through
+ * and closes only if all of them succeed.
+ *
+ * <p>Each permission carries the state it was granted in, so a call admitted
+ * before the breaker opened that finishes during HALF_OPEN neither counts as a
+ * probe nor closes or reopens the breaker. Timed-out calls are fed to the
+ * latency tracker at the timeout value, so a provider that has become slower
+ * than the adaptive timeout widens it instead of failing at it forever.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * @param generation state change count at admission; outcomes from an earlier one are stale
+     */
+    public record Permit(boolean probe, long generation) {
+    }
+
+    private final String channel;
+    private final CircuitBreakerProperties config;
+    private final LatencyTracker latencies;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long generation;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    public CircuitBreaker(String channel, CircuitBreakerProperties config) {
+        this.channel = channel;
+        this.config = config;
+        this.window = new boolean[config.getWindowSize()];
+        this.latencies = new LatencyTracker(256, config.getTimeout().getPercentile());
+    }
+
+    /**
+     * Claims permission for one call. Every permit must be passed to exactly
+     * one {@link #execute}.
+     *
+     * @return the permit, or null when the call is rejected
+     */
+    public Permit tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMs())) {
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= config.getHalfOpenProbes()) {
+                    return null;
+                }
+                probesInFlight++;
+                return new Permit(true, generation);
+            }
+            return new Permit(false, generation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a permitted call on its own virtual thread, bounded by the adaptive
+     * timeout. A timed-out call is interrupted and counted as a failure.
+     */
+    public <T> T execute(Permit permit, Callable<T> call) throws Exception {
+        long timeoutNanos = timeoutNanos();
+        long start = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Thread worker = Thread.ofVirtual().name("cb-" + channel).start(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            T value = result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            latencies.record(System.nanoTime() - start);
+            onSuccess(permit);
+            return value;
+        } catch (TimeoutException e) {
+            worker.interrupt();
+            // Its real latency is unknown but at least this; without it the timeout could never grow
+            latencies.record(timeoutNanos);
+            onFailure(permit);
+            throw new CallTimeoutException(channel + " call exceeded " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        } catch (ExecutionException e) {
+            onFailure(permit);
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            worker.interrupt();
+            releaseProbe(permit);
+            throw e;
+        }
+    }
+
+    /**
+     * Cheap check without claiming a permission: true while OPEN and the open
+     * duration has not elapsed yet.
+     */
+    public boolean isOpen() {
+        if (state != State.OPEN) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return state == State.OPEN
+                    && System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMs());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long timeoutNanos() {
+        CircuitBreakerProperties.Timeout timeout = config.getTimeout();
+        long max = TimeUnit.MILLISECONDS.toNanos(timeout.getMaxMs());
+        long percentile = latencies.percentileNanos();
+        if (percentile < 0 || latencies.size() < timeout.getMinSamples()) {
+            return max;
+        }
+        long min = TimeUnit.MILLISECONDS.toNanos(timeout.getMinMs());
+        return Math.max(min, Math.min(max, (long) (percentile * timeout.getMultiplier())));
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void onSuccess(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.generation() != generation) {
+                return;
+            }
+            if (permit.probe()) {
+                probesInFlight--;
+                if (++probeSuccesses >= config.getHalfOpenProbes()) {
+                    close();
+                }
+            } else {
+                recordInWindow(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onFailure(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.generation() != generation) {
+                return;
+            }
+            if (permit.probe()) {
+                open();
+            } else {
+                recordInWindow(true);
+                if (windowCount >= config.getMinimumCalls()
+                        && (double) windowFailures / windowCount >= config.getFailureRateThreshold()) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseProbe(Permit permit) {
+        lock.lock();
+        try {
+            if (permit.probe() && permit.generation() == generation) {
+                probesInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordInWindow(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.notification.resilience;
+
+import com.example.notification.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class CircuitBreakers {
+
+    private final CircuitBreakerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakers(CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CircuitBreaker forChannel(String channel) {
+        return breakers.computeIfAbsent(channel.toLowerCase(Locale.ROOT), key -> {
+            CircuitBreaker breaker = new CircuitBreaker(key, properties);
+            Gauge.builder("notification.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .tag("channel", key)
+                    .register(meterRegistry);
+            Gauge.builder("notification.circuit.timeout", breaker, b -> b.timeoutNanos() / 1_000_000.0)
+                    .description("Current adaptive call timeout in milliseconds")
+                    .tag("channel", key)
+                    .register(meterRegistry);
+            return breaker;
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.notification.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring of recent call latencies with a cached percentile. The
+ * percentile is recomputed every {@code RECOMPUTE_EVERY} samples rather than
+ * per call, so reading it is just a volatile load. A sample at or above the
+ * cached value triggers a recompute straight away, so a latency increase
+ * raises the percentile without waiting for the next round.
+ */
+class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final double percentile;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private volatile long cachedPercentileNanos = -1;
+
+    LatencyTracker(int capacity, double percentile) {
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) {
+                size++;
+            }
+            if (++sinceRecompute >= RECOMPUTE_EVERY || cachedPercentileNanos < 0 || nanos >= cachedPercentileNanos) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, size);
+                Arrays.sort(sorted);
+                int index = (int) Math.min(size - 1, Math.ceil(percentile * size) - 1);
+                cachedPercentileNanos = sorted[Math.max(0, index)];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the cached percentile, or -1 before the first sample
+     */
+    long percentileNanos() {
+        return cachedPercentileNanos;
+    }
+}
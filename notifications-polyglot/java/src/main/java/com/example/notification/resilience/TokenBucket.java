@@ -0,0 +1,75 @@
+package com.example.notification.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: the only state is the time at which
+ * every permit reserved so far is paid for; the bucket is full once that lies
+ * {@code burst} intervals in the past. Callers reserve permits and are told how
+ * long to wait, so waiting happens outside the bucket and never holds a lock.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    /**
+     * Reserves {@code permits} and returns how many nanoseconds the caller must
+     * wait before using them (0 when they are available now).
+     */
+    public long reserve(int permits) {
+        return reserve(permits, Long.MIN_VALUE);
+    }
+
+    /**
+     * Like {@link #reserve(int)}, but for permits that will not be used before
+     * {@code notBeforeNanos} (a {@link System#nanoTime()} value), e.g. because
+     * another bucket holds the caller back until then. The permits are charged
+     * at the time they are actually used, so they cannot add to a burst there.
+     */
+    public long reserve(int permits, long notBeforeNanos) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long start = Math.max(now, notBeforeNanos);
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, start - toleranceNanos) + cost;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return Math.max(start, next) - now;
+            }
+        }
+    }
+
+    public boolean tryAcquire(int permits) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now - toleranceNanos) + cost;
+            if (next > now) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back permits taken by {@link #tryAcquire} that were not used. The next
+     * reservation clamps an over-refunded bucket back to a full one.
+     */
+    public void refund(int permits) {
+        theoreticalArrival.addAndGet(-intervalNanos * permits);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.notification.resilience;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counting slots whose waiters queue per priority level. A freed slot goes to
+ * the next level picked by smooth weighted round robin among the levels that
+ * have waiters, so while every level is backlogged level i gets
+ * weight[i] / sum(weights) of the slots: high priority stays fast and low
+ * priority still drains. Waiters within a level are served in arrival order.
+ *
+ * <p>The last {@code reserved} free slots only go to level 0, so lower levels
+ * can never hold every slot and leave high priority queued behind them.
+ */
+class WeightedSlots {
+
+    private static final class Waiter {
+        private final Condition granted;
+        private boolean done;
+
+        Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int[] weights;
+    private final int[] credits;
+    private final List<ArrayDeque<Waiter>> queues;
+    private final int reserved;
+    private int available;
+
+    WeightedSlots(int slots, int[] weights, int reserved) {
+        this.available = slots;
+        this.reserved = Math.max(0, Math.min(reserved, slots - 1));
+        this.weights = weights.clone();
+        this.credits = new int[weights.length];
+        this.queues = new ArrayList<>(weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    int levels() {
+        return weights.length;
+    }
+
+    /**
+     * @return how many slots sends of {@code level} can hold at once
+     */
+    int slotsFor(int level, int slots) {
+        return level == 0 ? slots : slots - reserved;
+    }
+
+    boolean tryAcquire(int level, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            // Free slots beyond the reserve are only left over while no level has waiters
+            if (available > floor(level)) {
+                available--;
+                return true;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.get(level).addLast(waiter);
+            long remaining = timeoutNanos;
+            try {
+                while (!waiter.done) {
+                    if (remaining <= 0) {
+                        queues.get(level).remove(waiter);
+                        return false;
+                    }
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                if (waiter.done) {
+                    // Granted just before the interrupt; hand the slot on
+                    available++;
+                    grant();
+                } else {
+                    queues.get(level).remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            available++;
+            grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int floor(int level) {
+        return level == 0 ? 0 : reserved;
+    }
+
+    private void grant() {
+        while (available > 0) {
+            int level = nextLevel(available > reserved);
+            if (level < 0) {
+                return;
+            }
+            Waiter waiter = queues.get(level).pollFirst();
+            waiter.done = true;
+            available--;
+            waiter.granted.signal();
+        }
+    }
+
+    private int nextLevel(boolean lowerLevels) {
+        int best = -1;
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (queues.get(i).isEmpty()) {
+                // An idle level starts from scratch instead of cashing in old credit
+                credits[i] = 0;
+                continue;
+            }
+            if (i > 0 && !lowerLevels) {
+                continue;
+            }
+            credits[i] += weights[i];
+            total += weights[i];
+            if (best < 0 || credits[i] > credits[best]) {
+                best = i;
+            }
+        }
+        if (best >= 0) {
+            credits[best] -= total;
+        }
+        return best;
+    }
+}
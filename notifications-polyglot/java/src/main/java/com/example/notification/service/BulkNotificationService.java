@@ -0,0 +1,133 @@
+package com.example.notification.service;
+
+import com.example.notification.config.EnqueueProperties;
+import com.example.notification.dto.BulkNotifyResult;
+import com.example.notification.dto.NotificationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enqueues an NDJSON stream of {@link NotificationRequest}s. Lines are parsed
+ * one at a time and enqueued in batches of {@code bulk-batch-size}, each in a
+ * single transaction; the result of every line is written back as soon as its
+ * batch commits, so neither side has to hold the whole payload.
+ */
+@Service
+@Slf4j
+public class BulkNotificationService {
+
+    private record Line(int number, NotificationRequest request, String error) {
+    }
+
+    private final NotificationService notificationService;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final EnqueueProperties properties;
+
+    public BulkNotificationService(NotificationService notificationService, ObjectMapper objectMapper,
+                                   EnqueueProperties properties) {
+        this.notificationService = notificationService;
+        this.requestReader = objectMapper.readerFor(NotificationRequest.class);
+        this.resultWriter = objectMapper.writerFor(BulkNotifyResult.class);
+        this.properties = properties;
+    }
+
+    public void enqueueStream(InputStream body, OutputStream response) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response, StandardCharsets.UTF_8));
+        int batchSize = Math.max(1, properties.getBulkBatchSize());
+        List<Line> batch = new ArrayList<>(batchSize);
+        int lineNumber = 0;
+        int enqueued = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNumber++;
+            if (text.isBlank()) {
+                continue;
+            }
+            batch.add(parse(lineNumber, text));
+            if (batch.size() >= batchSize) {
+                enqueued += flush(batch, writer);
+            }
+        }
+        enqueued += flush(batch, writer);
+        log.info("Bulk enqueue finished: {} of {} lines enqueued", enqueued, lineNumber);
+    }
+
+    private Line parse(int number, String text) {
+        try {
+            NotificationRequest request = requestReader.readValue(text);
+            String error = validate(request);
+            return new Line(number, error == null ? request : null, error);
+        } catch (JsonProcessingException e) {
+            return new Line(number, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private String validate(NotificationRequest request) {
+        if (request.getChannels() == null || request.getChannels().isEmpty()) {
+            return "channels must not be empty";
+        }
+        if (request.getRecipientIds() == null || request.getRecipientIds().isEmpty()) {
+            return "recipientIds must not be empty";
+        }
+        return notificationService.validate(request);
+    }
+
+    private int flush(List<Line> batch, Writer writer) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<NotificationRequest> requests = new ArrayList<>(batch.size());
+        for (Line line : batch) {
+            if (line.request() != null) {
+                requests.add(line.request());
+            }
+        }
+
+        List<String> ids = List.of();
+        String batchError = null;
+        if (!requests.isEmpty()) {
+            try {
+                ids = notificationService.enqueueNotifications(requests);
+            } catch (RuntimeException e) {
+                log.error("Failed to enqueue bulk batch of {} notifications", requests.size(), e);
+                batchError = "Enqueue failed: " + e.getMessage();
+            }
+        }
+
+        int next = 0;
+        for (Line line : batch) {
+            BulkNotifyResult result;
+            if (line.request() == null) {
+                result = BulkNotifyResult.rejected(line.number(), line.error());
+            } else if (batchError != null) {
+                result = BulkNotifyResult.rejected(line.number(), batchError);
+            } else {
+                result = BulkNotifyResult.enqueued(line.number(), ids.get(next++));
+            }
+            writer.write(resultWriter.writeValueAsString(result));
+            writer.write('\n');
+        }
+        // Push this batch's results to the client before reading further
+        writer.flush();
+        batch.clear();
+        return batchError == null ? requests.size() : 0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notification.service;
+
+import com.example.notification.exception.InvalidTemplateException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A message template parsed once into its render plan: the literal runs and
+ * the variable slots between them. {@code {{name}}} reads the notification's
+ * metadata, {@code {{recipient.id}}} the recipient id and
+ * {@code {{recipient.name}}} the recipient's attributes; unknown variables
+ * render as empty. Rendering appends into a caller-owned buffer, so a caller
+ * rendering for many recipients reuses one buffer instead of growing a new
+ * one each time.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final String RECIPIENT_PREFIX = "recipient.";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+    // literals[i] precedes slot i; the last literal follows the last slot
+    private final String[] literals;
+    private final String[] names;
+    private final boolean[] recipientScoped;
+    private final int literalLength;
+    private final boolean personalized;
+
+    private CompiledTemplate(List<String> literals, List<String> names, List<Boolean> recipientScoped) {
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        this.recipientScoped = new boolean[names.size()];
+        boolean anyRecipientScoped = false;
+        for (int i = 0; i < this.recipientScoped.length; i++) {
+            this.recipientScoped[i] = recipientScoped.get(i);
+            anyRecipientScoped |= this.recipientScoped[i];
+        }
+        this.personalized = anyRecipientScoped;
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static CompiledTemplate compile(String source) {
+        if (source == null) {
+            throw new InvalidTemplateException("Template body must not be empty");
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Boolean> recipientScoped = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new InvalidTemplateException("Unclosed {{ at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (!NAME.matcher(name).matches()) {
+                throw new InvalidTemplateException("Invalid variable name '" + name + "' at offset " + open);
+            }
+            literals.add(source.substring(position, open));
+            boolean scoped = name.startsWith(RECIPIENT_PREFIX);
+            names.add(scoped ? name.substring(RECIPIENT_PREFIX.length()) : name);
+            recipientScoped.add(scoped);
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+        return new CompiledTemplate(literals, names, recipientScoped);
+    }
+
+    /**
+     * @return true if the text depends on the recipient, i.e. it has to be rendered once per recipient
+     */
+    public boolean isPersonalized() {
+        return personalized;
+    }
+
+    /**
+     * Renders into {@code buffer}, which is cleared first.
+     *
+     * @param recipientAttributes may be null
+     */
+    public String render(StringBuilder buffer, Map<String, ?> variables, String recipientId,
+                         Map<String, String> recipientAttributes) {
+        buffer.setLength(0);
+        buffer.ensureCapacity(literalLength + 16 * names.length);
+        for (int i = 0; i < names.length; i++) {
+            buffer.append(literals[i]);
+            Object value;
+            if (!recipientScoped[i]) {
+                value = variables == null ? null : variables.get(names[i]);
+            } else if ("id".equals(names[i])) {
+                value = recipientId;
+            } else {
+                value = recipientAttributes == null ? null : recipientAttributes.get(names[i]);
+            }
+            if (value != null) {
+                buffer.append(value);
+            }
+        }
+        buffer.append(literals[names.length]);
+        return buffer.toString();
+    }
+}
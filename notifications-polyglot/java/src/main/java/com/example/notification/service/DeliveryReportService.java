@@ -0,0 +1,76 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.DeliveryReport;
+import com.example.notification.dto.FailedRecipientsPage;
+import com.example.notification.entity.RecipientOutcome;
+import com.example.notification.repository.RecipientBitmaps;
+import com.example.notification.repository.RecipientOutcomeDelta;
+import com.example.notification.repository.RecipientOutcomeRepository;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class DeliveryReportService {
+
+    private final RecipientOutcomeRepository repository;
+
+    @Transactional
+    public void recordOutcomes(Collection<RecipientOutcomeDelta> deltas) {
+        repository.mergeOutcomes(deltas);
+    }
+
+    public Optional<DeliveryReport> getReport(String notificationId) {
+        OptionalInt recipientCount = repository.recipientCount(notificationId);
+        if (recipientCount.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, DeliveryReport.ChannelDelivery> channels = new TreeMap<>();
+        for (RecipientOutcome outcome : repository.findByIdNotificationId(notificationId)) {
+            int succeeded = RecipientBitmaps.fromBytes(outcome.getSucceeded()).getCardinality();
+            int failed = RecipientBitmaps.fromBytes(outcome.getFailed()).getCardinality();
+            channels.put(outcome.getId().getChannel(), new DeliveryReport.ChannelDelivery(
+                    succeeded, failed, Math.max(0, recipientCount.getAsInt() - succeeded - failed)));
+        }
+        return Optional.of(new DeliveryReport(notificationId, recipientCount.getAsInt(), channels));
+    }
+
+    /**
+     * Lists one page of failed recipients in index order. The page is located
+     * with a rank/select on the bitmap, so deep pages cost no more than the first.
+     */
+    public Optional<FailedRecipientsPage> getFailures(String notificationId, String channel, int page, int size) {
+        Optional<RecipientOutcome> outcome = repository.findById(new RecipientOutcome.Key(notificationId, channel));
+        if (outcome.isEmpty()) {
+            return Optional.empty();
+        }
+        RoaringBitmap failed = RecipientBitmaps.fromBytes(outcome.get().getFailed());
+        int total = failed.getCardinality();
+        long offset = (long) page * size;
+        List<FailedRecipientsPage.FailedRecipient> recipients = new ArrayList<>();
+        if (offset < total) {
+            int[] indexes = new int[(int) Math.min(size, total - offset)];
+            PeekableIntIterator iterator = failed.getIntIterator();
+            iterator.advanceIfNeeded(failed.select((int) offset));
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = iterator.next();
+            }
+            Map<Integer, String> recipientIds = repository.findRecipientIds(notificationId, indexes);
+            for (int index : indexes) {
+                recipients.add(new FailedRecipientsPage.FailedRecipient(index, recipientIds.get(index)));
+            }
+        }
+        return Optional.of(new FailedRecipientsPage(notificationId, channel, page, size, total, recipients));
+    }
+}
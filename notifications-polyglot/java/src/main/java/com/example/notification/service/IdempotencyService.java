@@ -0,0 +1,113 @@
+package com.example.notification.service;
+
+import com.example.notification.config.IdempotencyProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.exception.IdempotencyKeyMismatchException;
+import com.example.notification.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Resolves Idempotency-Key headers. Keys are scoped per tenant: the stored key
+ * is a digest of the tenant and the client's key, so two tenants can use the
+ * same key independently. Each key also remembers a fingerprint of the request
+ * it was first used with, and reusing it with a different request is rejected
+ * rather than answered with the original notification.
+ *
+ * <p>Keys seen recently on this node are answered from a bounded W-TinyLFU
+ * cache without touching the database; a miss goes through
+ * {@link NotificationService#enqueueNotification(NotificationRequest, String, String)},
+ * whose key table is authoritative across nodes. A key always maps to the same
+ * notification until its ttl, so cached entries cannot go stale before then.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private record Binding(String notificationId, String requestHash) {
+    }
+
+    private final NotificationService notificationService;
+    private final IdempotencyKeyRepository repository;
+    private final IdempotencyProperties properties;
+    // Map keys sorted so the same request always has the same fingerprint
+    private final ObjectMapper canonicalMapper;
+    private final Cache<String, Binding> recentKeys;
+
+    public IdempotencyService(NotificationService notificationService, IdempotencyKeyRepository repository,
+                              IdempotencyProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.notificationService = notificationService;
+        this.repository = repository;
+        this.properties = properties;
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtl().compareTo(properties.getTtl()) < 0
+                        ? properties.getCacheTtl() : properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, recentKeys, "idempotency-keys");
+    }
+
+    /**
+     * @throws IdempotencyKeyMismatchException if the key was used for a different request
+     */
+    public NotificationService.EnqueueResult enqueue(String idempotencyKey, NotificationRequest request) {
+        String scopedKey = scopedKey(request.getTenantId(), idempotencyKey);
+        String requestHash = requestHash(request);
+        Binding cached = recentKeys.getIfPresent(scopedKey);
+        if (cached != null) {
+            if (!cached.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException();
+            }
+            return new NotificationService.EnqueueResult(cached.notificationId(), true);
+        }
+        NotificationService.EnqueueResult result = notificationService.enqueueNotification(request, scopedKey, requestHash);
+        recentKeys.put(scopedKey, new Binding(result.notificationId(), requestHash));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.idempotency.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(properties.getTtl().toSeconds());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    static String scopedKey(String tenantId, String idempotencyKey) {
+        return sha256((tenantId == null ? "" : tenantId) + '\u0000' + idempotencyKey);
+    }
+
+    private String requestHash(NotificationRequest request) {
+        try {
+            // sendAt and delay are write-only, so not part of the JSON
+            return sha256(canonicalMapper.writeValueAsString(request) + '\u0000' + request.getSendAt() + '\u0000' + request.getDelay());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot fingerprint notification request", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.notification.service;
+
+import com.example.notification.config.ScheduleProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.entity.ScheduledNotification;
+import com.example.notification.exception.InvalidScheduleException;
+import com.example.notification.repository.ScheduledNotificationRepository;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds back notifications with a {@code sendAt} or {@code delay} until they
+ * are due. Their outbox records wait in notification_schedules, indexed by due
+ * time, so millions of pending schedules cost no memory. Each node claims
+ * unclaimed schedules due within the lookahead window, page by page with
+ * SKIP LOCKED, and loads them into its {@link TimingWheel}; each tick moves the
+ * due ones to the outbox in one statement per batch. A schedule is therefore
+ * loaded and fired by one node, and the cluster shares the load instead of
+ * every node repeating it. Schedules inserted within the window this node has
+ * already claimed are claimed by it on insert.
+ *
+ * <p>Cancelling deletes the schedule row by primary key and unlinks the wheel
+ * entry. Rows still pending overdue-grace after their due time, e.g. because
+ * the node that claimed them crashed, are loaded again by every node's pass;
+ * moving deletes the schedule row, so only one of them fires it.
+ */
+@Component
+@Slf4j
+public class NotificationScheduler {
+
+    public static final String SCHEDULED = "SCHEDULED";
+    public static final String CANCELLED = "CANCELLED";
+
+    /**
+     * A notification to hold back, with the outbox records to publish when it is due.
+     */
+    public record Schedule(String notificationId, Instant dueAt, List<OutboxEvent> events) {
+    }
+
+    // Outbox row as stored in the schedule's events array; the payload stays raw JSON
+    private record StoredEvent(String topic, String recordKey, Map<String, String> headers, @JsonRawValue String payload) {
+    }
+
+    private final ScheduledNotificationRepository repository;
+    private final NotificationStatusService statusService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ScheduleProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+    private final Counter fired;
+    // Due time before which every schedule has been claimed by some node; guarded by lock
+    private Instant loadedUntil = Instant.EPOCH;
+
+    public NotificationScheduler(ScheduledNotificationRepository repository, NotificationStatusService statusService,
+                                 TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                 ScheduleProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.statusService = statusService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.wheel = new TimingWheel(properties.getTickMs(), properties.getWheelSlots(), System.currentTimeMillis());
+        this.fired = Counter.builder("notification.schedule.fired").register(meterRegistry);
+        Gauge.builder("notification.schedule.loaded", this, NotificationScheduler::loaded).register(meterRegistry);
+    }
+
+    /**
+     * @return an error message, or null if the request's sendAt / delay is usable
+     */
+    public static String validate(NotificationRequest request) {
+        if (request.getSendAt() != null && request.getDelay() != null) {
+            return "sendAt and delay are mutually exclusive";
+        }
+        if (request.getDelay() != null && request.getDelay().isNegative()) {
+            return "delay must not be negative";
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the request's sendAt / delay, plus jitter, against {@code now}.
+     *
+     * @return when to publish the notification, or null to publish it right away
+     */
+    public Instant dueAt(NotificationRequest request, Instant now) {
+        String error = validate(request);
+        if (error != null) {
+            throw new InvalidScheduleException(error);
+        }
+        Instant requested = request.getSendAt() != null ? request.getSendAt().toInstant()
+                : request.getDelay() != null ? now.plus(request.getDelay()) : null;
+        if (requested == null || !requested.isAfter(now)) {
+            return null;
+        }
+        long jitterMs = properties.getMaxJitter().toMillis();
+        return jitterMs <= 0 ? requested : requested.plusMillis(ThreadLocalRandom.current().nextLong(jitterMs + 1));
+    }
+
+    /**
+     * Stores the schedules in the caller's transaction; those due within the
+     * window already loaded are claimed by this node and go into its wheel once
+     * it commits.
+     */
+    public void schedule(List<Schedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Instant claimBefore;
+        lock.lock();
+        try {
+            claimBefore = loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+        List<ScheduledNotification> rows = new ArrayList<>(schedules.size());
+        List<Schedule> claimed = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            Instant claimedUntil = null;
+            // Later ones are claimed when some node's window reaches them
+            if (schedule.dueAt().isBefore(claimBefore)) {
+                claimedUntil = schedule.dueAt().plus(properties.getOverdueGrace());
+                claimed.add(schedule);
+            }
+            rows.add(new ScheduledNotification(schedule.notificationId(), schedule.dueAt(), encode(schedule.events()),
+                    claimedUntil));
+        }
+        repository.insertSchedules(rows);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    track(claimed);
+                }
+            });
+        } else {
+            track(claimed);
+        }
+    }
+
+    /**
+     * @return true if the notification was still scheduled and is now CANCELLED;
+     * false if it does not exist or was already handed to the outbox
+     */
+    public boolean cancel(String notificationId) {
+        Boolean cancelled = transactionTemplate.execute(tx -> {
+            if (repository.deleteSchedule(notificationId) == 0) {
+                return false;
+            }
+            statusService.transition(List.of(notificationId), SCHEDULED, CANCELLED);
+            return true;
+        });
+        // Other nodes' wheels may still hold the id; firing it finds no row there
+        lock.lock();
+        try {
+            wheel.cancel(notificationId);
+        } finally {
+            lock.unlock();
+        }
+        return Boolean.TRUE.equals(cancelled);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.schedule.tick-ms:100}")
+    public void tick() {
+        if (!properties.isDispatcherEnabled()) {
+            return;
+        }
+        List<String> due;
+        lock.lock();
+        try {
+            due = wheel.advance(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+        int batchSize = Math.max(1, properties.getFireBatchSize());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<String> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                fire(batch);
+            } catch (RuntimeException e) {
+                // Left in the table; the overdue pass loads them again
+                log.warn("Failed to fire {} scheduled notifications, will retry: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Claims what is due up to now + lookahead and reloads overdue rows.
+     */
+    @Scheduled(fixedDelayString = "${notification.schedule.load-interval-ms:10000}")
+    public void load() {
+        if (!properties.isDispatcherEnabled()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            loadOverdue(now.minus(properties.getOverdueGrace()));
+            loadWindow(now.plus(properties.getLookahead()));
+        } catch (RuntimeException e) {
+            log.warn("Schedule load pass failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private void fire(List<String> notificationIds) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<String> moved = repository.moveToOutbox(notificationIds);
+            statusService.transition(moved, SCHEDULED, "ENQUEUED");
+            fired.increment(moved.size());
+        });
+    }
+
+    private void loadWindow(Instant horizon) {
+        int batchSize = Math.max(1, properties.getLoadBatchSize());
+        long leaseMs = properties.getOverdueGrace().toMillis();
+        while (loaded() < properties.getMaxLoaded()) {
+            List<ScheduledNotification> page = repository.claimDue(horizon, leaseMs, batchSize);
+            lock.lock();
+            try {
+                page.forEach(this::addToWheel);
+                if (page.size() < batchSize) {
+                    // Everything before the horizon is claimed; rows due exactly at it come next pass
+                    loadedUntil = horizon;
+                    return;
+                }
+                Instant last = page.get(page.size() - 1).getDueAt();
+                if (last.isAfter(loadedUntil)) {
+                    loadedUntil = last;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.warn("Schedule wheel holds {} entries, pausing load at {}", loaded(), loadedUntil);
+    }
+
+    private void loadOverdue(Instant overdueBefore) {
+        List<ScheduledNotification> overdue = repository.findDue(Instant.EPOCH, "", overdueBefore,
+                Math.max(1, properties.getLoadBatchSize()));
+        if (overdue.isEmpty()) {
+            return;
+        }
+        lock.lock();
+        try {
+            overdue.forEach(this::addToWheel);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Reloaded {} overdue scheduled notifications", overdue.size());
+    }
+
+    private void track(List<Schedule> schedules) {
+        lock.lock();
+        try {
+            for (Schedule schedule : schedules) {
+                wheel.add(schedule.notificationId(), schedule.dueAt().toEpochMilli());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToWheel(ScheduledNotification schedule) {
+        wheel.add(schedule.getNotificationId(), schedule.getDueAt().toEpochMilli());
+    }
+
+    private int loaded() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String encode(List<OutboxEvent> events) {
+        List<StoredEvent> stored = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            Map<String, String> headers = event.getHeaders() == null || event.getHeaders().isEmpty() ? null : event.getHeaders();
+            stored.add(new StoredEvent(event.getTopic(), event.getRecordKey(), headers, event.getPayload()));
+        }
+        try {
+            return objectMapper.writeValueAsString(stored);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode scheduled outbox events", e);
+        }
+    }
+}
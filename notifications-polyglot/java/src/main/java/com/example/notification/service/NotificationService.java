@@ -1,11 +1,27 @@
 package com.example.notification.service;
 
+import com.example.notification.config.EnqueueProperties;
+import com.example.notification.config.IdempotencyProperties;
+import com.example.notification.config.PriorityProperties;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.entity.IdempotencyKey;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.exception.IdempotencyKeyMismatchException;
+import com.example.notification.exception.InvalidTemplateException;
+import com.example.notification.repository.IdempotencyKeyRepository;
+import com.example.notification.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -13,17 +29,184 @@ import java.util.UUID;
 @Slf4j
 public class NotificationService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    public static final String NOTIFICATION_ID_HEADER = "notification-id";
+    public static final String CHUNK_INDEX_HEADER = "chunk-index";
+    public static final String CHUNK_COUNT_HEADER = "chunk-count";
+    public static final String RECIPIENT_OFFSET_HEADER = "recipient-offset";
+
     private final NotificationStatusService statusService;
-    private static final String TOPIC = "notifications";
+    private final OutboxRepository outboxRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final EnqueueProperties enqueueProperties;
+    private final IdempotencyProperties idempotencyProperties;
+    private final PriorityProperties priorityProperties;
+    private final NotificationScheduler scheduler;
+    private final TemplateService templateService;
+
+    /**
+     * @param replayed true when the idempotency key was already bound and nothing new was enqueued
+     */
+    public record EnqueueResult(String notificationId, boolean replayed) {
+    }
 
+    /**
+     * Writes the status row and the Kafka records to publish in one transaction;
+     * {@link OutboxRelay} publishes them after commit, so the request pays a single
+     * DB round trip and a broker outage cannot leave a notification unprocessed.
+     */
+    @Transactional
     public String enqueueNotification(NotificationRequest request) {
+        return enqueueNotifications(List.of(request)).get(0);
+    }
+
+    /**
+     * Enqueues the request unless {@code idempotencyKey} is already bound to a
+     * notification, in which case that notification's id is returned instead.
+     * The key is claimed first, in the same transaction as the status row, so
+     * concurrent retries on different nodes serialize on the key's row.
+     *
+     * @param idempotencyKey tenant-scoped key, see {@link IdempotencyService}
+     * @param requestHash    fingerprint of the request, compared with the one the key was bound with
+     * @throws IdempotencyKeyMismatchException if the key is bound to a different request
+     */
+    @Transactional
+    public EnqueueResult enqueueNotification(NotificationRequest request, String idempotencyKey, String requestHash) {
         String notificationId = UUID.randomUUID().toString();
-        log.info("Enqueuing notification: {}", notificationId);
-        
-        statusService.createInitialStatus(notificationId, request.getChannels());
-        
-        kafkaTemplate.send(TOPIC, notificationId, request);
-        return notificationId;
+        long ttlSeconds = idempotencyProperties.getTtl().toSeconds();
+        if (idempotencyKeyRepository.claim(idempotencyKey, notificationId, requestHash, ttlSeconds) == 0) {
+            IdempotencyKey existing = idempotencyKeyRepository.findLive(idempotencyKey, ttlSeconds)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key " + idempotencyKey + " is bound but not readable"));
+            if (existing.getRequestHash() != null && !existing.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyMismatchException();
+            }
+            log.info("Idempotency key {} replayed, returning notification {}", idempotencyKey, existing.getNotificationId());
+            return new EnqueueResult(existing.getNotificationId(), true);
+        }
+        enqueue(List.of(notificationId), List.of(request));
+        return new EnqueueResult(notificationId, false);
+    }
+
+    /**
+     * Enqueues many notifications in one transaction with batched inserts for
+     * the status, recipient and outbox rows.
+     *
+     * @return the new notification ids, in request order
+     */
+    @Transactional
+    public List<String> enqueueNotifications(List<NotificationRequest> requests) {
+        List<String> notificationIds = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            notificationIds.add(UUID.randomUUID().toString());
+        }
+        enqueue(notificationIds, requests);
+        return notificationIds;
+    }
+
+    /**
+     * Checks what the JSON shape alone does not: the schedule fields and that a
+     * referenced template is registered.
+     *
+     * @return an error message, or null if the request can be enqueued
+     */
+    public String validate(NotificationRequest request) {
+        String error = NotificationScheduler.validate(request);
+        if (error == null && request.getTemplateId() != null && templateService.get(request.getTemplateId()).isEmpty()) {
+            error = "Unknown template " + request.getTemplateId();
+        }
+        return error;
+    }
+
+    private void enqueue(List<String> notificationIds, List<NotificationRequest> requests) {
+        int minChunkSize = Math.max(1, enqueueProperties.getChunkSize());
+        int maxChunks = Math.max(1, enqueueProperties.getMaxChunks());
+        int maxChunkSize = Math.max(minChunkSize, enqueueProperties.getMaxChunkSize());
+        List<NotificationStatusService.NewNotification> notifications = new ArrayList<>(requests.size());
+        List<OutboxEvent> events = new ArrayList<>(requests.size());
+        List<NotificationScheduler.Schedule> schedules = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < requests.size(); i++) {
+            String notificationId = notificationIds.get(i);
+            NotificationRequest request = requests.get(i);
+            if (request.getTemplateId() != null && templateService.get(request.getTemplateId()).isEmpty()) {
+                throw new InvalidTemplateException("Unknown template " + request.getTemplateId());
+            }
+            List<String> recipientIds = request.getRecipientIds();
+            int chunkSize = Math.min(maxChunkSize, Math.max(minChunkSize, (recipientIds.size() + maxChunks - 1) / maxChunks));
+            int chunkCount = Math.max(1, (recipientIds.size() + chunkSize - 1) / chunkSize);
+            Instant dueAt = scheduler.dueAt(request, now);
+            log.debug("Enqueuing notification: {} ({} chunks{})", notificationId, chunkCount,
+                    dueAt == null ? "" : ", due at " + dueAt);
+
+            notifications.add(new NotificationStatusService.NewNotification(
+                    notificationId, request.getChannels(), recipientIds, chunkCount, dueAt != null));
+            if (dueAt == null) {
+                addOutboxEvents(events, notificationId, request, chunkSize, chunkCount);
+            } else {
+                List<OutboxEvent> deferred = new ArrayList<>(chunkCount);
+                addOutboxEvents(deferred, notificationId, request, chunkSize, chunkCount);
+                schedules.add(new NotificationScheduler.Schedule(notificationId, dueAt, deferred));
+            }
+        }
+
+        statusService.createInitialStatuses(notifications);
+        if (!events.isEmpty()) {
+            outboxRepository.append(events);
+        }
+        scheduler.schedule(schedules);
+        log.info("Enqueued {} notifications ({} outbox records, {} scheduled)", requests.size(), events.size(), schedules.size());
+    }
+
+    private void addOutboxEvents(List<OutboxEvent> events, String notificationId, NotificationRequest request,
+                                 int chunkSize, int chunkCount) {
+        String topic = priorityProperties.topicFor(request.getPriority());
+        if (chunkCount == 1) {
+            events.add(new OutboxEvent(topic, notificationId, Map.of(), toJson(request)));
+            return;
+        }
+        List<String> recipientIds = request.getRecipientIds();
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int from = chunk * chunkSize;
+            NotificationRequest part = new NotificationRequest();
+            part.setChannels(request.getChannels());
+            part.setRecipientIds(recipientIds.subList(from, Math.min(from + chunkSize, recipientIds.size())));
+            part.setMessage(request.getMessage());
+            part.setTemplateId(request.getTemplateId());
+            part.setRecipientAttributes(attributesOf(part.getRecipientIds(), request.getRecipientAttributes()));
+            part.setMetadata(request.getMetadata());
+            part.setTenantId(request.getTenantId());
+            part.setPriority(request.getPriority());
+
+            // Distinct keys hash chunks onto different partitions; the headers carry the real id
+            events.add(new OutboxEvent(topic, notificationId + ":" + chunk, Map.of(
+                    NOTIFICATION_ID_HEADER, notificationId,
+                    CHUNK_INDEX_HEADER, Integer.toString(chunk),
+                    CHUNK_COUNT_HEADER, Integer.toString(chunkCount),
+                    RECIPIENT_OFFSET_HEADER, Integer.toString(from)), toJson(part)));
+        }
+    }
+
+    // Each chunk only carries the attributes of its own recipients
+    private static Map<String, Map<String, String>> attributesOf(List<String> recipientIds,
+                                                                 Map<String, Map<String, String>> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return null;
+        }
+        Map<String, Map<String, String>> subset = new HashMap<>();
+        for (String recipientId : recipientIds) {
+            Map<String, String> recipient = attributes.get(recipientId);
+            if (recipient != null) {
+                subset.put(recipientId, recipient);
+            }
+        }
+        return subset;
+    }
+
+    private String toJson(NotificationRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode notification request", e);
+        }
     }
 }
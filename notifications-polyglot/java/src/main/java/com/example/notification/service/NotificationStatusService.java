@@ -2,56 +2,166 @@ package com.example.notification.service;
 
 import com.example.notification.dto.NotificationMetrics;
 import com.example.notification.entity.NotificationStatus;
+import com.example.notification.exception.ChunkedCallbackException;
+import com.example.notification.repository.ChannelStatusUpdate;
 import com.example.notification.repository.NotificationStatusRepository;
+import com.example.notification.repository.RecipientOutcomeRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class NotificationStatusService {
 
     private final NotificationStatusRepository repository;
+    private final RecipientOutcomeRepository recipientOutcomeRepository;
+    private final StatusWriteBuffer writeBuffer;
+    private final StatusCounters counters;
+    private final StatusCache statusCache;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * @param scheduled true when the notification waits in the schedule table; it starts as SCHEDULED instead of ENQUEUED
+     */
+    public record NewNotification(String notificationId, List<String> channels, List<String> recipientIds, int chunkCount,
+                                  boolean scheduled) {
+
+        public NewNotification(String notificationId, List<String> channels, List<String> recipientIds, int chunkCount) {
+            this(notificationId, channels, recipientIds, chunkCount, false);
+        }
+    }
+
+    /**
+     * Creates ENQUEUED rows for many notifications with JDBC batches rather than
+     * one JPA persist each.
+     */
     @Transactional
-    public void createInitialStatus(String notificationId, List<String> channels) {
-        Map<String, String> channelStatuses = new HashMap<>();
-        for (String channel : channels) {
-            channelStatuses.put(channel, "PENDING");
+    public void createInitialStatuses(List<NewNotification> notifications) {
+        List<NotificationStatus> statuses = new ArrayList<>(notifications.size());
+        Map<String, List<String>> recipients = new LinkedHashMap<>();
+        List<ChannelStatusUpdate> created = new ArrayList<>(notifications.size());
+        for (NewNotification notification : notifications) {
+            Map<String, String> channelStatuses = new HashMap<>();
+            for (String channel : notification.channels()) {
+                for (int chunk = 0; chunk < notification.chunkCount(); chunk++) {
+                    channelStatuses.put(NotificationStatus.channelKey(channel, chunk, notification.chunkCount()), "PENDING");
+                }
+            }
+
+            String initialStatus = notification.scheduled() ? "SCHEDULED" : "ENQUEUED";
+            NotificationStatus status = new NotificationStatus();
+            status.setNotificationId(notification.notificationId());
+            status.setStatus(initialStatus);
+            status.setChannelStatuses(channelStatuses);
+            status.setChunkCount(notification.chunkCount());
+            statuses.add(status);
+            // Stored once so per-recipient delivery bitmaps can refer to recipients by index
+            recipients.put(notification.notificationId(), notification.recipientIds());
+            created.add(new ChannelStatusUpdate(notification.notificationId(), null, initialStatus, 0));
         }
-        
-        NotificationStatus status = new NotificationStatus();
-        status.setNotificationId(notificationId);
-        status.setStatus("ENQUEUED");
-        status.setChannelStatuses(channelStatuses);
-        
-        repository.save(status);
+
+        repository.insertInitialStatuses(statuses);
+        recipientOutcomeRepository.saveRecipients(recipients);
+        eventPublisher.publishEvent(new StatusTransitionEvent(created));
+    }
+
+    /**
+     * Moves the aggregate status of notifications still in {@code from}, e.g.
+     * SCHEDULED to ENQUEUED when a schedule fires; joins the caller's transaction.
+     *
+     * @return the notifications that were moved
+     */
+    @Transactional
+    public List<ChannelStatusUpdate> transition(Collection<String> notificationIds, String from, String to) {
+        List<ChannelStatusUpdate> updates = repository.transitionStatuses(notificationIds, from, to);
+        if (!updates.isEmpty()) {
+            eventPublisher.publishEvent(new StatusTransitionEvent(updates));
+        }
+        return updates;
     }
 
     public Optional<NotificationStatus> getStatus(String notificationId) {
-        return repository.findById(notificationId);
+        Optional<NotificationStatus> stored = statusCache.get(notificationId, repository::findById);
+        Optional<Map<String, String>> pending = writeBuffer.pendingFor(notificationId);
+        if (stored.isEmpty() || (pending.isEmpty() && !isChunked(stored.get()))) {
+            return stored;
+        }
+        // Overlay transitions that are still buffered onto a detached copy. Without any the
+        // persisted aggregate stands, e.g. ENQUEUED, SCHEDULED or CANCELLED on a chunked row
+        NotificationStatus persisted = stored.get();
+        // Null on a row the legacy migration has not backfilled yet
+        Map<String, String> channelStatuses = persisted.getChannelStatuses() == null
+                ? new HashMap<>() : new HashMap<>(persisted.getChannelStatuses());
+        String aggregate = persisted.getStatus();
+        if (pending.isPresent()) {
+            channelStatuses.putAll(pending.get());
+            aggregate = aggregateStatus(channelStatuses.values());
+        }
+        NotificationStatus status = new NotificationStatus(notificationId, aggregate, channelStatuses,
+                persisted.getChunkCount(), persisted.getVersion(), persisted.getCreatedAt(), persisted.getUpdatedAt(), null);
+        if (isChunked(persisted)) {
+            foldChunks(status);
+        }
+        return Optional.of(status);
+    }
+
+    private static boolean isChunked(NotificationStatus status) {
+        return status.getChunkCount() != null && status.getChunkCount() > 1;
+    }
+
+    /**
+     * Presents per-chunk keys as one status per channel, with a count of the
+     * chunks that have completed.
+     */
+    private static void foldChunks(NotificationStatus status) {
+        Map<String, List<String>> byChannel = new TreeMap<>();
+        status.getChannelStatuses().forEach((key, value) ->
+                byChannel.computeIfAbsent(NotificationStatus.channelOf(key), channel -> new ArrayList<>()).add(value));
+        Map<String, String> channelStatuses = new TreeMap<>();
+        Map<String, Integer> completedChunks = new TreeMap<>();
+        byChannel.forEach((channel, chunks) -> {
+            int completed = (int) chunks.stream().filter("COMPLETED"::equalsIgnoreCase).count();
+            completedChunks.put(channel, completed);
+            if (completed == chunks.size()) {
+                channelStatuses.put(channel, "COMPLETED");
+            } else if (chunks.stream().anyMatch("FAILED"::equalsIgnoreCase)) {
+                channelStatuses.put(channel, "FAILED");
+            } else if (chunks.stream().allMatch("PENDING"::equalsIgnoreCase)) {
+                channelStatuses.put(channel, "PENDING");
+            } else {
+                channelStatuses.put(channel, "PROCESSING");
+            }
+        });
+        status.setChannelStatuses(channelStatuses);
+        status.setCompletedChunks(completedChunks);
     }
 
     public NotificationMetrics getMetrics() {
-        List<Object[]> stats = repository.countByStatus();
-        
+        Map<String, Long> byStatus = counters.snapshot();
+
         long total = 0;
         long success = 0;
         long failed = 0;
-        Map<String, Long> byStatus = new HashMap<>();
 
-        for (Object[] row : stats) {
-            String status = (String) row[0];
-            Long count = (Long) row[1];
-            
-            byStatus.put(status, count);
+        for (Map.Entry<String, Long> entry : byStatus.entrySet()) {
+            String status = entry.getKey();
+            long count = entry.getValue();
+
             total += count;
-            
+
             if ("COMPLETED".equalsIgnoreCase(status)) {
                 success += count;
             } else if ("FAILED".equalsIgnoreCase(status)) {
@@ -62,27 +172,71 @@ public class NotificationStatusService {
         return new NotificationMetrics(total, success, failed, byStatus);
     }
 
-    @Transactional
-    public void updateChannelStatus(String notificationId, String channel, String newStatus) {
-        System.out.println("Updating status for " + notificationId + " channel " + channel + " to " + newStatus);
-        repository.findById(notificationId).ifPresent(status -> {
-            status.getChannelStatuses().put(channel, newStatus);
-            
-            // Simple aggregation logic for overall status
-            boolean allCompleted = status.getChannelStatuses().values().stream()
-                    .allMatch(s -> "COMPLETED".equalsIgnoreCase(s));
-            boolean anyFailed = status.getChannelStatuses().values().stream()
-                    .anyMatch(s -> "FAILED".equalsIgnoreCase(s));
-            
-            if (allCompleted) {
-                status.setStatus("COMPLETED");
-            } else if (anyFailed) {
-                status.setStatus("PARTIAL_FAILURE");
-            } else {
-                status.setStatus("PROCESSING");
-            }
-            System.out.println("New overall status for " + notificationId + ": " + status.getStatus());
-            repository.save(status);
-        });
+    /**
+     * Applies a single transition, e.g. from a webhook. In FLUSH_BEFORE_ACK mode
+     * it is written immediately as one atomic UPDATE and the new aggregate status
+     * is returned; in ASYNC mode it is buffered and the result is empty.
+     */
+    public Optional<String> updateChannelStatus(String notificationId, String channel, String newStatus) {
+        if (!writeBuffer.isFlushBeforeAck()) {
+            stageChannelStatus(notificationId, channel, newStatus);
+            return Optional.empty();
+        }
+        log.debug("Updating status for {} channel {} to {}", notificationId, channel, newStatus);
+        Optional<ChannelStatusUpdate> update = writeBuffer.writeThrough(notificationId, channel,
+                () -> repository.updateChannelStatus(notificationId, channel, newStatus));
+        update.ifPresent(u -> eventPublisher.publishEvent(
+                new StatusTransitionEvent(List.of(u), Map.of(notificationId, Map.of(channel, newStatus)))));
+        return update.map(ChannelStatusUpdate::status);
+    }
+
+    /**
+     * Applies a provider callback for one channel. A chunked notification tracks
+     * each chunk under its own key, so the callback must say which chunk it
+     * reports on; it is applied to that chunk's key.
+     *
+     * @throws ChunkedCallbackException if the notification is chunked and {@code chunk} is missing or out of range
+     */
+    public Optional<String> applyCallback(String notificationId, String channel, Integer chunk, String newStatus) {
+        // chunk_count never changes after insert, so a cached row is good enough
+        Optional<NotificationStatus> stored = statusCache.get(notificationId, repository::findById);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        int chunkCount = isChunked(stored.get()) ? stored.get().getChunkCount() : 1;
+        if (chunkCount > 1 && (chunk == null || chunk < 0 || chunk >= chunkCount)) {
+            throw new ChunkedCallbackException(notificationId, chunkCount);
+        }
+        return updateChannelStatus(notificationId, NotificationStatus.channelKey(channel, chunk == null ? 0 : chunk, chunkCount),
+                newStatus);
+    }
+
+    /**
+     * Buffers a transition without waiting for it to be written, so that a
+     * caller reporting several transitions pays for one flush.
+     */
+    public void stageChannelStatus(String notificationId, String channel, String newStatus) {
+        log.debug("Updating status for {} channel {} to {}", notificationId, channel, newStatus);
+        writeBuffer.record(notificationId, channel, newStatus);
+    }
+
+    public void commitStagedStatuses() {
+        writeBuffer.awaitDurable();
+    }
+
+    static String aggregateStatus(Collection<String> channelStatuses) {
+        // Mirrors the CASE expression in NotificationStatusRepositoryCustomImpl
+        boolean allCompleted = true;
+        boolean anyFailed = false;
+        for (String s : channelStatuses) {
+            allCompleted &= "COMPLETED".equalsIgnoreCase(s);
+            anyFailed |= "FAILED".equalsIgnoreCase(s);
+        }
+        if (allCompleted) {
+            return "COMPLETED";
+        } else if (anyFailed) {
+            return "PARTIAL_FAILURE";
+        }
+        return "PROCESSING";
     }
 }
@@ -0,0 +1,162 @@
+package com.example.notification.service;
+
+import com.example.notification.config.OutboxProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox rows to Kafka. Each pass claims a batch for a lease in one
+ * statement ({@code FOR UPDATE SKIP LOCKED} inside it, so several nodes can
+ * relay in parallel), sends it asynchronously with no transaction open, and
+ * deletes the rows the broker acked. Rows that were not acked are released for
+ * the next pass; a row that cannot be turned into a record at all is
+ * quarantined so it does not block the rows behind it.
+ *
+ * <p>Delivery is at-least-once: a relay that dies, or is slower than its lease,
+ * after the broker acked but before the delete leaves rows that are published
+ * again. The idempotent producer only removes duplicates from its own retries
+ * within one session, so downstream a notification can occasionally be sent
+ * twice.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+
+    public OutboxRelay(OutboxRepository outboxRepository, KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper, OutboxProperties properties) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:50}")
+    public void relay() {
+        if (!properties.isRelayEnabled()) {
+            return;
+        }
+        try {
+            // Keep draining while batches come back full
+            int published;
+            do {
+                published = relayBatch();
+            } while (published >= properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of events published and removed from the outbox
+     */
+    public int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.claimBatch(properties.getBatchSize(), properties.getClaimLeaseMs());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<OutboxEvent> sent = new ArrayList<>(events.size());
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ProducerRecord<String, Object> record;
+            try {
+                record = toRecord(event);
+            } catch (RuntimeException e) {
+                log.error("Quarantining outbox event {}: {}", event.getId(), e.getMessage(), e);
+                outboxRepository.quarantine(event.getId(), e.getMessage());
+                continue;
+            }
+            sent.add(event);
+            try {
+                sends.add(kafkaTemplate.send(record));
+            } catch (RuntimeException e) {
+                if (isSerializationFailure(e)) {
+                    log.error("Quarantining outbox event {}: {}", event.getId(), e.getMessage(), e);
+                    sent.remove(sent.size() - 1);
+                    outboxRepository.quarantine(event.getId(), e.getMessage());
+                } else {
+                    sends.add(CompletableFuture.failedFuture(e));
+                }
+            }
+        }
+        awaitAcks(sends);
+
+        List<Long> acked = new ArrayList<>(sent.size());
+        List<Long> failed = new ArrayList<>();
+        for (int i = 0; i < sent.size(); i++) {
+            CompletableFuture<?> send = sends.get(i);
+            if (send.isDone() && !send.isCompletedExceptionally()) {
+                acked.add(sent.get(i).getId());
+            } else if (send.isDone()) {
+                failed.add(sent.get(i).getId());
+            }
+            // Still in flight: keep the claim until its lease runs out rather than racing our own send
+        }
+        outboxRepository.deleteByIds(acked);
+        outboxRepository.releaseClaims(failed);
+        if (acked.size() < sent.size()) {
+            log.warn("{} of {} outbox events not acknowledged, will retry", sent.size() - acked.size(), sent.size());
+        }
+        return acked.size();
+    }
+
+    private ProducerRecord<String, Object> toRecord(OutboxEvent event) {
+        NotificationRequest payload;
+        try {
+            payload = objectMapper.readValue(event.getPayload(), NotificationRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload for event " + event.getId(), e);
+        }
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), event.getRecordKey(), payload);
+        if (event.getHeaders() != null) {
+            event.getHeaders().forEach((name, value) -> record.headers().add(name, value.getBytes(StandardCharsets.UTF_8)));
+        }
+        return record;
+    }
+
+    // Retrying cannot help a record the serializer rejects; anything else (buffer full, metadata) is transient
+    private static boolean isSerializationFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SerializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits up to send-timeout-ms for every send to settle, failed or not.
+     */
+    private void awaitAcks(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.stream().map(send -> send.exceptionally(e -> null)).toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox batch of {} not fully acknowledged within {} ms", sends.size(), properties.getSendTimeoutMs());
+        }
+    }
+}
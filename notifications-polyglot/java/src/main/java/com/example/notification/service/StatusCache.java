@@ -0,0 +1,144 @@
+package com.example.notification.service;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of persisted status rows for GET /status/{id}
+ * (W-TinyLFU eviction, hit/miss counts in notification.status.cache.gets).
+ *
+ * <p>Entries carry the row version. Local writes patch a cached row in place
+ * when it is exactly one version behind, and otherwise leave a version-only
+ * marker so a read that raced the write cannot cache the older row. Every write
+ * is also announced on a compacted topic, which other nodes apply as markers.
+ * Buffered transitions are overlaid by {@link NotificationStatusService} as before.
+ */
+@Component
+public class StatusCache {
+
+    // status is null for a marker that only records the newest known version
+    private record Entry(NotificationStatus status, long version) {
+    }
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final StatusProperties.Cache config;
+    private final Cache<String, Entry> entries;
+    // Counted here rather than by Caffeine, which would count version markers as hits
+    private final Counter hits;
+    private final Counter misses;
+
+    public StatusCache(KafkaTemplate<String, Object> kafkaTemplate, StatusProperties properties, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.config = properties.getCache();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+        this.hits = Counter.builder("notification.status.cache.gets").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("notification.status.cache.gets").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("notification.status.cache.size", entries, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    public Optional<NotificationStatus> get(String notificationId, Function<String, Optional<NotificationStatus>> loader) {
+        if (!config.isEnabled()) {
+            return loader.apply(notificationId);
+        }
+        Entry entry = entries.getIfPresent(notificationId);
+        if (entry != null && entry.status() != null) {
+            hits.increment();
+            return Optional.of(entry.status());
+        }
+        misses.increment();
+        Optional<NotificationStatus> loaded = loader.apply(notificationId).map(StatusCache::copyOf);
+        loaded.ifPresent(status -> {
+            long version = versionOf(status);
+            entries.asMap().merge(notificationId, new Entry(status, version),
+                    (current, fresh) -> current.version() > fresh.version() ? current : fresh);
+        });
+        return loaded;
+    }
+
+    // A rolled-back write must neither patch the cache nor tell other nodes about it
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransitions(StatusTransitionEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        for (ChannelStatusUpdate update : event.updates()) {
+            if (update.previousStatus() == null) {
+                continue;
+            }
+            Map<String, String> channels = event.channelTransitions().get(update.notificationId());
+            entries.asMap().compute(update.notificationId(), (id, current) -> patch(current, update, channels));
+            kafkaTemplate.send(config.getInvalidationTopic(), update.notificationId(), update.version());
+        }
+    }
+
+    /**
+     * Assigned every partition of the invalidation topic rather than joining a
+     * per-node consumer group, so restarts leave no orphaned groups behind.
+     */
+    @KafkaListener(groupId = "status-cache", autoStartup = "${notification.status.cache.enabled:true}",
+            topicPartitions = @TopicPartition(
+                    topic = "${notification.status.cache.invalidation-topic:notification-status-invalidations}",
+                    partitions = "0-#{${notification.status.cache.invalidation-partitions:3} - 1}"),
+            properties = "auto.offset.reset=latest")
+    public void onInvalidation(ConsumerRecord<String, Long> record) {
+        if (record.value() != null) {
+            invalidate(record.key(), record.value());
+        }
+    }
+
+    /**
+     * Drops the cached row if it is older than {@code version}; a no-op for this
+     * node's own writes, which already patched the entry.
+     */
+    public void invalidate(String notificationId, long version) {
+        entries.asMap().compute(notificationId, (id, current) ->
+                current != null && current.version() >= version ? current : new Entry(null, version));
+    }
+
+    private static Entry patch(Entry current, ChannelStatusUpdate update, Map<String, String> channels) {
+        if (current != null && current.version() >= update.version()) {
+            return current;
+        }
+        if (current == null || current.status() == null || channels == null || current.version() != update.version() - 1) {
+            return new Entry(null, update.version());
+        }
+        NotificationStatus status = copyOf(current.status());
+        status.getChannelStatuses().putAll(channels);
+        status.setStatus(update.status());
+        status.setVersion(update.version());
+        status.setUpdatedAt(LocalDateTime.now());
+        return new Entry(status, update.version());
+    }
+
+    private static long versionOf(NotificationStatus status) {
+        return status.getVersion() == null ? 0 : status.getVersion();
+    }
+
+    private static NotificationStatus copyOf(NotificationStatus status) {
+        return new NotificationStatus(status.getNotificationId(), status.getStatus(),
+                status.getChannelStatuses() == null ? new HashMap<>() : new HashMap<>(status.getChannelStatuses()),
+                status.getChunkCount(), status.getVersion(), status.getCreatedAt(), status.getUpdatedAt(), null);
+    }
+}
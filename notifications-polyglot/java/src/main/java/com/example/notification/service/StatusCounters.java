@@ -0,0 +1,160 @@
+package com.example.notification.service;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.StatusCounter;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.repository.NotificationStatusRepository;
+import com.example.notification.repository.StatusCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-status notification counts maintained from status transitions instead of
+ * a GROUP BY over notification_status. Each node accumulates deltas in
+ * LongAdders and periodically adds them to notification_status_counters, which
+ * holds the cluster-wide totals. Transitions are counted only once their
+ * transaction commits, so a rolled-back enqueue or schedule fire leaves no
+ * trace. Every node seeds an empty table once at startup, e.g. after an upgrade;
+ * an optional reconcile job, enabled on a single node, resets the totals from
+ * the status table to repair drift.
+ */
+@Component
+@Slf4j
+public class StatusCounters {
+
+    private final StatusCounterRepository counterRepository;
+    private final NotificationStatusRepository statusRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StatusProperties.Metrics config;
+
+    // Transitions applied on this node since its last checkpoint
+    private final Map<String, LongAdder> deltas = new ConcurrentHashMap<>();
+    // Cluster-wide totals as of this node's last checkpoint
+    private volatile Map<String, Long> checkpointed = Map.of();
+
+    public StatusCounters(StatusCounterRepository counterRepository, NotificationStatusRepository statusRepository,
+                          TransactionTemplate transactionTemplate, StatusProperties properties) {
+        this.counterRepository = counterRepository;
+        this.statusRepository = statusRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.config = properties.getMetrics();
+    }
+
+    // Runs immediately for flushes published outside a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransitions(StatusTransitionEvent event) {
+        for (ChannelStatusUpdate update : event.updates()) {
+            if (Objects.equals(update.previousStatus(), update.status())) {
+                continue;
+            }
+            if (update.previousStatus() != null) {
+                adder(update.previousStatus()).decrement();
+            }
+            adder(update.status()).increment();
+        }
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> counts = new HashMap<>(checkpointed);
+        deltas.forEach((status, adder) -> counts.merge(status, adder.sum(), Long::sum));
+        counts.values().removeIf(count -> count == 0);
+        return counts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+        if (checkpointed.isEmpty()) {
+            // First start against an existing status table. Nodes starting together may all
+            // get here; the statement only writes while the table is still empty
+            Integer seeded = transactionTemplate.execute(tx -> counterRepository.seedIfEmpty());
+            refresh();
+            if (seeded != null && seeded > 0) {
+                log.info("Seeded status counters from the status table: {}", checkpointed);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.status.metrics.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        Map<String, Long> drained = new HashMap<>();
+        deltas.forEach((status, adder) -> {
+            // Subtracting what was read keeps increments that race with the drain
+            long delta = adder.sum();
+            if (delta != 0) {
+                adder.add(-delta);
+                drained.put(status, delta);
+            }
+        });
+        if (!drained.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> drained.forEach(counterRepository::addToCount));
+            } catch (RuntimeException e) {
+                drained.forEach((status, delta) -> adder(status).add(delta));
+                log.error("Failed to checkpoint status counters, deltas kept for the next attempt", e);
+                return;
+            }
+        }
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${notification.status.metrics.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${notification.status.metrics.reconcile-interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (config.isReconcileEnabled()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Overwrites the counters table with an exact GROUP BY. Deltas other nodes
+     * have not checkpointed yet can be counted twice, so this is best enabled on
+     * a single node and scheduled for quiet periods.
+     */
+    public void reconcile() {
+        checkpoint();
+        Map<String, Long> actual = new HashMap<>();
+        for (Object[] row : statusRepository.countByStatus()) {
+            actual.put((String) row[0], (Long) row[1]);
+        }
+        Map<String, Long> before = checkpointed;
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (String status : before.keySet()) {
+                if (!actual.containsKey(status)) {
+                    counterRepository.setCount(status, 0);
+                }
+            }
+            actual.forEach(counterRepository::setCount);
+        });
+        refresh();
+        if (!actual.equals(before)) {
+            log.warn("Reconciled status counters: {} -> {}", before, actual);
+        }
+    }
+
+    private void refresh() {
+        List<StatusCounter> counters = counterRepository.findAll();
+        Map<String, Long> totals = new HashMap<>();
+        for (StatusCounter counter : counters) {
+            totals.put(counter.getStatus(), counter.getCount());
+        }
+        checkpointed = totals;
+    }
+
+    private LongAdder adder(String status) {
+        return deltas.computeIfAbsent(status, key -> new LongAdder());
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.notification.service;
+
+import com.example.notification.common.ApiResponse;
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.exception.SubscriptionLimitException;
+import com.example.notification.repository.ChannelStatusUpdate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes status changes to SSE streams and long polls instead of having clients
+ * poll GET /status/{id}. Open subscriptions hold no thread, only an entry in an
+ * in-memory registry keyed by notification id. Writes on this node arrive as
+ * {@link StatusTransitionEvent}s, writes on other nodes through the status
+ * invalidation topic; both just schedule one read of the current status per
+ * notification, which is then offered to each of its subscribers. A remote write
+ * first invalidates the cached row at its version, so that read cannot be served
+ * the row the write replaced.
+ */
+@Service
+@Slf4j
+public class StatusSubscriptionService {
+
+    private final NotificationStatusService statusService;
+    private final StatusCache statusCache;
+    private final StatusProperties.Subscriptions config;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // Notifications with a push already scheduled; later transitions ride along with it
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger open = new AtomicInteger();
+    private final ExecutorService pushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StatusSubscriptionService(NotificationStatusService statusService, StatusCache statusCache,
+                                     StatusProperties properties, MeterRegistry meterRegistry) {
+        this.statusService = statusService;
+        this.statusCache = statusCache;
+        this.config = properties.getSubscriptions();
+        Gauge.builder("notification.status.subscriptions", open, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Streams the current status, then every newer one, as {@code status} events;
+     * the stream completes once every channel is COMPLETED or FAILED, or the
+     * scheduled notification is CANCELLED.
+     */
+    public Optional<SseEmitter> stream(String notificationId) {
+        Optional<NotificationStatus> current = statusService.getStatus(notificationId);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(config.getStreamTimeoutMs());
+        SseSubscriber subscriber = new SseSubscriber(emitter);
+        register(notificationId, subscriber);
+        emitter.onCompletion(() -> unregister(notificationId, subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unregister(notificationId, subscriber));
+        // Registered before the first offer so no transition between the two is missed
+        offer(notificationId, subscriber, current.get());
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Answers as soon as the status version is above {@code sinceVersion}, or with
+     * 304 Not Modified once the timeout passes without a change.
+     */
+    public Optional<DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>>> poll(
+            String notificationId, long sinceVersion, long timeoutMs) {
+        Optional<NotificationStatus> current = statusService.getStatus(notificationId);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        long timeout = timeoutMs <= 0 ? config.getDefaultPollTimeoutMs() : Math.min(timeoutMs, config.getMaxPollTimeoutMs());
+        DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result = new DeferredResult<>(timeout,
+                () -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        PollSubscriber subscriber = new PollSubscriber(result, sinceVersion);
+        register(notificationId, subscriber);
+        result.onCompletion(() -> unregister(notificationId, subscriber));
+        offer(notificationId, subscriber, current.get());
+        return Optional.of(result);
+    }
+
+    // After commit, so a subscriber is never pushed a status that was rolled back
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransitions(StatusTransitionEvent event) {
+        for (ChannelStatusUpdate update : event.updates()) {
+            schedulePush(update.notificationId());
+        }
+    }
+
+    /**
+     * Every node reads every partition of the invalidation topic, so partitions are
+     * assigned rather than balanced within a group.
+     */
+    @KafkaListener(groupId = "status-subscriptions", autoStartup = "${notification.status.cache.enabled:true}",
+            topicPartitions = @TopicPartition(
+                    topic = "${notification.status.cache.invalidation-topic:notification-status-invalidations}",
+                    partitions = "0-#{${notification.status.cache.invalidation-partitions:3} - 1}"),
+            properties = "auto.offset.reset=latest")
+    public void onRemoteWrite(ConsumerRecord<String, Long> record) {
+        if (record.value() != null) {
+            statusCache.invalidate(record.key(), record.value());
+        }
+        schedulePush(record.key());
+    }
+
+    @PreDestroy
+    public void close() {
+        pushExecutor.shutdownNow();
+    }
+
+    private void schedulePush(String notificationId) {
+        if (!subscribers.containsKey(notificationId) || !scheduled.add(notificationId)) {
+            return;
+        }
+        pushExecutor.execute(() -> {
+            // Cleared before reading, so a transition landing during the read schedules another push
+            scheduled.remove(notificationId);
+            try {
+                statusService.getStatus(notificationId).ifPresent(status -> {
+                    Set<Subscriber> current = subscribers.get(notificationId);
+                    if (current != null) {
+                        current.forEach(subscriber -> offer(notificationId, subscriber, status));
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Failed to push status of notification [{}]", notificationId, e);
+            }
+        });
+    }
+
+    private void register(String notificationId, Subscriber subscriber) {
+        if (open.incrementAndGet() > config.getMaxOpen()) {
+            open.decrementAndGet();
+            throw new SubscriptionLimitException(config.getMaxOpen());
+        }
+        // Added inside compute so a concurrent unregister cannot drop the set this lands in
+        subscribers.compute(notificationId, (id, set) -> {
+            Set<Subscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private void unregister(String notificationId, Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(notificationId, (id, set) -> {
+            removed[0] = set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        if (removed[0]) {
+            open.decrementAndGet();
+        }
+    }
+
+    private void offer(String notificationId, Subscriber subscriber, NotificationStatus status) {
+        if (!subscriber.offer(status)) {
+            unregister(notificationId, subscriber);
+        }
+    }
+
+    private static boolean isFinal(NotificationStatus status) {
+        if (NotificationScheduler.CANCELLED.equals(status.getStatus())) {
+            return true;
+        }
+        return status.getChannelStatuses() != null && status.getChannelStatuses().values().stream()
+                .allMatch(s -> "COMPLETED".equalsIgnoreCase(s) || "FAILED".equalsIgnoreCase(s));
+    }
+
+    private abstract static class Subscriber {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long version;
+        private boolean done;
+
+        Subscriber(long version) {
+            this.version = version;
+        }
+
+        /**
+         * Delivers the status if it is newer than the last one delivered.
+         *
+         * @return false once the subscriber wants nothing more
+         */
+        boolean offer(NotificationStatus status) {
+            lock.lock();
+            try {
+                long statusVersion = status.getVersion() == null ? 0 : status.getVersion();
+                if (!done && statusVersion > version) {
+                    version = statusVersion;
+                    done = !deliver(status);
+                }
+                return !done;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return false when this was the last delivery
+         */
+        abstract boolean deliver(NotificationStatus status);
+    }
+
+    private static class SseSubscriber extends Subscriber {
+
+        private final SseEmitter emitter;
+
+        SseSubscriber(SseEmitter emitter) {
+            super(-1);
+            this.emitter = emitter;
+        }
+
+        @Override
+        boolean deliver(NotificationStatus status) {
+            try {
+                emitter.send(SseEmitter.event().name("status").id(String.valueOf(status.getVersion())).data(status));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                return false;
+            }
+            if (isFinal(status)) {
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static class PollSubscriber extends Subscriber {
+
+        private final DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result;
+
+        PollSubscriber(DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result, long sinceVersion) {
+            super(sinceVersion);
+            this.result = result;
+        }
+
+        @Override
+        boolean deliver(NotificationStatus status) {
+            result.setResult(ResponseEntity.ok(ApiResponse.success(status)));
+            return false;
+        }
+    }
+}
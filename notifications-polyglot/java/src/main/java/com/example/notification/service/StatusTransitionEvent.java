@@ -0,0 +1,20 @@
+package com.example.notification.service;
+
+import com.example.notification.repository.ChannelStatusUpdate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published after status writes reach the database, one event per flush or
+ * direct write, so listeners see aggregate transitions without re-reading rows.
+ * {@code channelTransitions} holds the channel statuses each write applied
+ * (notification id to channel key to status), empty for newly created rows
+ * and for aggregate-only transitions such as a schedule firing.
+ */
+public record StatusTransitionEvent(List<ChannelStatusUpdate> updates, Map<String, Map<String, String>> channelTransitions) {
+
+    public StatusTransitionEvent(List<ChannelStatusUpdate> updates) {
+        this(updates, Map.of());
+    }
+}
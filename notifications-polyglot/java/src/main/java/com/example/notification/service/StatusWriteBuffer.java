@@ -0,0 +1,224 @@
+package com.example.notification.service;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.repository.NotificationStatusRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for channel status transitions. Transitions for the same
+ * notification and channel coalesce (last write wins) until a size or time
+ * trigger merges them in a single statement via
+ * {@link NotificationStatusRepository#mergeChannelStatuses}.
+ */
+@Component
+@Slf4j
+public class StatusWriteBuffer {
+
+    private final NotificationStatusRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StatusProperties.WriteBehind config;
+
+    // Write-throughs and flushes exclude each other per notification, striped by id hash
+    private static final int STRIPES = 64;
+
+    // ReentrantLock rather than synchronized so virtual threads are not pinned
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock[] notificationLocks = new ReentrantLock[STRIPES];
+    private Map<String, Map<String, String>> pending = new LinkedHashMap<>();
+    private int pendingCount;
+
+    public StatusWriteBuffer(NotificationStatusRepository repository, ApplicationEventPublisher eventPublisher,
+                             StatusProperties properties) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.config = properties.getWriteBehind();
+        for (int i = 0; i < STRIPES; i++) {
+            notificationLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public void record(String notificationId, String channel, String status) {
+        boolean full;
+        bufferLock.lock();
+        try {
+            if (pending.computeIfAbsent(notificationId, id -> new HashMap<>()).put(channel, status) == null) {
+                pendingCount++;
+            }
+            full = pendingCount >= config.getMaxPending();
+        } finally {
+            bufferLock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Makes buffered transitions durable when running in FLUSH_BEFORE_ACK mode;
+     * a no-op in ASYNC mode, where the background trigger owns flushing.
+     */
+    public void awaitDurable() {
+        if (isFlushBeforeAck()) {
+            flush();
+        }
+    }
+
+    /**
+     * Runs a direct write for one channel, serialized with flushes of the same
+     * notification and with any buffered (older) transition for that channel
+     * discarded, so neither can overwrite the direct write afterwards. Writes
+     * for other notifications are not held up.
+     */
+    public <T> T writeThrough(String notificationId, String channel, Supplier<T> write) {
+        ReentrantLock lock = notificationLocks[stripe(notificationId)];
+        lock.lock();
+        try {
+            bufferLock.lock();
+            try {
+                Map<String, String> channels = pending.get(notificationId);
+                if (channels != null && channels.remove(channel) != null) {
+                    pendingCount--;
+                    if (channels.isEmpty()) {
+                        pending.remove(notificationId);
+                    }
+                }
+            } finally {
+                bufferLock.unlock();
+            }
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isFlushBeforeAck() {
+        return config.getMode() == StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK;
+    }
+
+    public Optional<Map<String, String>> pendingFor(String notificationId) {
+        bufferLock.lock();
+        try {
+            Map<String, String> channels = pending.get(notificationId);
+            return channels == null ? Optional.empty() : Optional.of(Map.copyOf(channels));
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.status.write-behind.flush-interval-ms:200}")
+    public void flushOnInterval() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Background status flush failed, transitions kept for the next attempt", e);
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        // Flushes are serialized so an older snapshot never lands after a newer one
+        flushLock.lock();
+        try {
+            boolean[] stripes = pendingStripes();
+            // Taken in index order, so a write-through holding one stripe cannot deadlock with us
+            List<ReentrantLock> held = new ArrayList<>();
+            try {
+                for (int i = 0; i < STRIPES; i++) {
+                    if (stripes[i]) {
+                        notificationLocks[i].lock();
+                        held.add(notificationLocks[i]);
+                    }
+                }
+                flushStripes(stripes);
+            } finally {
+                held.forEach(ReentrantLock::unlock);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushStripes(boolean[] stripes) {
+        Map<String, Map<String, String>> snapshot = drain(stripes);
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        List<ChannelStatusUpdate> updates;
+        try {
+            updates = repository.mergeChannelStatuses(snapshot);
+            log.debug("Flushed status transitions for {} notifications", snapshot.size());
+        } catch (RuntimeException e) {
+            requeue(snapshot);
+            throw e;
+        }
+        eventPublisher.publishEvent(new StatusTransitionEvent(updates, snapshot));
+    }
+
+    private boolean[] pendingStripes() {
+        boolean[] stripes = new boolean[STRIPES];
+        bufferLock.lock();
+        try {
+            pending.keySet().forEach(notificationId -> stripes[stripe(notificationId)] = true);
+        } finally {
+            bufferLock.unlock();
+        }
+        return stripes;
+    }
+
+    // Only notifications whose stripe the flush holds; ones recorded since are left for the next flush
+    private Map<String, Map<String, String>> drain(boolean[] stripes) {
+        bufferLock.lock();
+        try {
+            Map<String, Map<String, String>> snapshot = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, Map<String, String>>> entries = pending.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Map<String, String>> entry = entries.next();
+                if (stripes[stripe(entry.getKey())]) {
+                    snapshot.put(entry.getKey(), entry.getValue());
+                    pendingCount -= entry.getValue().size();
+                    entries.remove();
+                }
+            }
+            return snapshot;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private static int stripe(String notificationId) {
+        return Math.floorMod(notificationId.hashCode(), STRIPES);
+    }
+
+    private void requeue(Map<String, Map<String, String>> snapshot) {
+        bufferLock.lock();
+        try {
+            // Transitions recorded since the drain are newer and take precedence
+            snapshot.forEach((notificationId, channels) -> {
+                Map<String, String> current = pending.computeIfAbsent(notificationId, id -> new HashMap<>());
+                channels.forEach((channel, status) -> {
+                    if (current.putIfAbsent(channel, status) == null) {
+                        pendingCount++;
+                    }
+                });
+            });
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+}
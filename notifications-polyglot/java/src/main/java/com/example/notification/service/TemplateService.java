@@ -0,0 +1,120 @@
+package com.example.notification.service;
+
+import com.example.notification.config.TemplateProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.entity.MessageTemplate;
+import com.example.notification.exception.InvalidTemplateException;
+import com.example.notification.exception.TemplateConflictException;
+import com.example.notification.repository.MessageTemplateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registers message templates and renders them for the worker. A request with
+ * a {@code templateId} carries the template reference, its metadata and any
+ * per-recipient attributes instead of pre-rendered text, so a broadcast is one
+ * Kafka record rather than one message per recipient. Templates are immutable
+ * once registered, so every node keeps their compiled form in a bounded cache
+ * without invalidation.
+ */
+@Service
+@Slf4j
+public class TemplateService {
+
+    /**
+     * @param message  the text for every recipient, or null when the template is personalized
+     * @param messages per-recipient text parallel to the request's recipientIds, or null
+     */
+    public record Rendered(String message, List<String> messages) {
+    }
+
+    // Render buffers outlive a call: listener containers keep one consumer thread per
+    // container, so each consumer reuses its own. Larger buffers are dropped after use
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final MessageTemplateRepository repository;
+    private final TemplateProperties properties;
+    private final Cache<String, CompiledTemplate> compiled;
+
+    public TemplateService(MessageTemplateRepository repository, TemplateProperties properties) {
+        this.repository = repository;
+        this.properties = properties;
+        this.compiled = Caffeine.newBuilder().maximumSize(properties.getCacheMaxSize()).build();
+    }
+
+    /**
+     * Registers {@code body} under {@code templateId}; registering the same body
+     * again is a no-op, a different one is rejected.
+     *
+     * @return true if the template was created
+     */
+    @Transactional
+    public boolean register(String templateId, String body) {
+        if (body != null && body.length() > properties.getMaxBodyLength()) {
+            throw new InvalidTemplateException("Template body must not exceed " + properties.getMaxBodyLength() + " characters");
+        }
+        CompiledTemplate.compile(body);
+        if (repository.insertIfAbsent(templateId, body) == 1) {
+            log.info("Registered template {}", templateId);
+            return true;
+        }
+        String existing = repository.findById(templateId).map(MessageTemplate::getBody)
+                .orElseThrow(() -> new IllegalStateException("Template " + templateId + " is registered but not readable"));
+        if (!existing.equals(body)) {
+            throw new TemplateConflictException(templateId);
+        }
+        return false;
+    }
+
+    public Optional<MessageTemplate> find(String templateId) {
+        return repository.findById(templateId);
+    }
+
+    public Optional<CompiledTemplate> get(String templateId) {
+        // A missing template is not cached (Caffeine drops nulls), so one registered later is found
+        return Optional.ofNullable(compiled.get(templateId, id -> repository.findById(id)
+                .map(template -> CompiledTemplate.compile(template.getBody()))
+                .orElse(null)));
+    }
+
+    /**
+     * Renders the request's template with the calling thread's reused buffer:
+     * once for all recipients, or once per recipient when it refers to
+     * recipient attributes.
+     *
+     * @return empty if the template is not registered
+     */
+    public Optional<Rendered> render(NotificationRequest request) {
+        Optional<CompiledTemplate> found = get(request.getTemplateId());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        CompiledTemplate template = found.get();
+        StringBuilder buffer = BUFFERS.get();
+        try {
+            if (!template.isPersonalized()) {
+                return Optional.of(new Rendered(template.render(buffer, request.getMetadata(), null, null), null));
+            }
+            Map<String, Map<String, String>> attributes = request.getRecipientAttributes() == null
+                    ? Map.of() : request.getRecipientAttributes();
+            List<String> messages = new ArrayList<>(request.getRecipientIds().size());
+            for (String recipientId : request.getRecipientIds()) {
+                messages.add(template.render(buffer, request.getMetadata(), recipientId, attributes.get(recipientId)));
+            }
+            return Optional.of(new Rendered(null, messages));
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFERS.remove();
+            }
+        }
+    }
+}
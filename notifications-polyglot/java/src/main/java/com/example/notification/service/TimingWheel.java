@@ -0,0 +1,171 @@
+package com.example.notification.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of notification ids. Level 0 has {@code slots}
+ * buckets one tick wide and each further level has buckets {@code slots} times
+ * wider, so adding, cancelling and expiring an id are O(1) however far apart
+ * the deadlines are. When a coarse bucket comes up its entries are cascaded
+ * into finer levels. Buckets are intrusive doubly linked lists and an index
+ * maps each id to its node, so cancelling is an unlink.
+ *
+ * <p>Not thread safe; {@link NotificationScheduler} guards it with a lock.
+ */
+public class TimingWheel {
+
+    private static final class Node {
+        private final String id;
+        private final long deadlineTick;
+        private Node prev = this;
+        private Node next = this;
+
+        Node(String id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private record Level(long span, Node[] buckets) {
+    }
+
+    private final long tickMs;
+    private final int slots;
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final List<Level> levels = new ArrayList<>();
+    // Entries whose deadline has passed, handed out by the next advance
+    private final Node due = new Node(null, 0);
+    private long currentTick;
+
+    public TimingWheel(long tickMs, int slots, long startMs) {
+        this.tickMs = tickMs;
+        this.slots = slots;
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(String id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * @return false if the id is already in the wheel
+     */
+    public boolean add(String id, long deadlineMs) {
+        if (nodes.containsKey(id)) {
+            return false;
+        }
+        // Rounded up so an entry never fires before its deadline
+        Node node = new Node(id, Math.ceilDiv(deadlineMs, tickMs));
+        nodes.put(id, node);
+        place(node);
+        return true;
+    }
+
+    public boolean cancel(String id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMs} and returns the ids whose deadline has
+     * passed, removing them.
+     */
+    public List<String> advance(long nowMs) {
+        List<String> expired = new ArrayList<>();
+        long target = Math.floorDiv(nowMs, tickMs);
+        while (currentTick < target) {
+            currentTick++;
+            // Coarsest first, so entries cascaded down to this tick still expire on it
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level level = levels.get(i);
+                if (currentTick % level.span() == 0) {
+                    cascade(bucket(level, currentTick));
+                }
+            }
+            if (!levels.isEmpty()) {
+                drain(bucket(levels.get(0), currentTick), expired);
+            }
+        }
+        drain(due, expired);
+        return expired;
+    }
+
+    private void place(Node node) {
+        long delta = node.deadlineTick - currentTick;
+        if (delta <= 0) {
+            append(due, node);
+            return;
+        }
+        int index = 0;
+        long span = 1;
+        while (delta / span >= slots) {
+            index++;
+            span *= slots;
+        }
+        while (levels.size() <= index) {
+            Node[] buckets = new Node[slots];
+            for (int i = 0; i < slots; i++) {
+                buckets[i] = new Node(null, 0);
+            }
+            levels.add(new Level(span(levels.size()), buckets));
+        }
+        append(bucket(levels.get(index), node.deadlineTick), node);
+    }
+
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            span *= slots;
+        }
+        return span;
+    }
+
+    private Node bucket(Level level, long tick) {
+        return level.buckets()[(int) ((tick / level.span()) % slots)];
+    }
+
+    private void cascade(Node head) {
+        Node node = head.next;
+        head.next = head;
+        head.prev = head;
+        while (node != head) {
+            Node next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void drain(Node head, List<String> expired) {
+        for (Node node = head.next; node != head; node = node.next) {
+            nodes.remove(node.id);
+            expired.add(node.id);
+        }
+        head.next = head;
+        head.prev = head;
+    }
+
+    private static void append(Node head, Node node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = node;
+        node.next = node;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.notification.worker;
+
+import com.example.notification.adapter.SendResult;
+import com.example.notification.entity.NotificationStatus;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ChannelOutcome {
+
+    /**
+     * A recipient and its position in the notification's original recipient
+     * list, which is what the delivery bitmaps are indexed by.
+     */
+    public record Recipient(int index, String id) {
+    }
+
+    private final String notificationId;
+    private final String channel;
+    private final int chunk;
+    private final int chunkCount;
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    // Recipients not attempted because the channel was shedding load; retryable
+    private final AtomicInteger deferred = new AtomicInteger();
+    // Failed and deferred recipients, to be republished as a retry unit
+    private final Queue<Recipient> retryRecipients = new ConcurrentLinkedQueue<>();
+    private final RoaringBitmap succeededIndexes = new RoaringBitmap();
+    private final RoaringBitmap failedIndexes = new RoaringBitmap();
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private volatile String lastError;
+
+    ChannelOutcome(String notificationId, String channel, int chunk, int chunkCount) {
+        this.notificationId = notificationId;
+        this.channel = channel;
+        this.chunk = chunk;
+        this.chunkCount = chunkCount;
+    }
+
+    void record(int index, SendResult result) {
+        if (result.success()) {
+            succeeded.incrementAndGet();
+            addIndex(succeededIndexes, index);
+        } else {
+            recordFailure(index, result.recipientId(), result.error());
+        }
+    }
+
+    void recordFailure(int index, String recipientId, String error) {
+        failed.incrementAndGet();
+        addIndex(failedIndexes, index);
+        retryRecipients.add(new Recipient(index, recipientId));
+        lastError = error;
+    }
+
+    void recordDeferred(int index, String recipientId) {
+        deferred.incrementAndGet();
+        retryRecipients.add(new Recipient(index, recipientId));
+    }
+
+    private void addIndex(RoaringBitmap bitmap, int index) {
+        indexLock.lock();
+        try {
+            bitmap.add(index);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public int getChunk() {
+        return chunk;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Key of this outcome in the notification's channel statuses: the channel
+     * itself, or one of its chunks for a chunked notification.
+     */
+    public String getStatusKey() {
+        return NotificationStatus.channelKey(channel, chunk, chunkCount);
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getDeferred() {
+        return deferred.get();
+    }
+
+    public List<Recipient> getRetryRecipients() {
+        return List.copyOf(retryRecipients);
+    }
+
+    public RoaringBitmap getSucceededIndexes() {
+        indexLock.lock();
+        try {
+            return succeededIndexes.clone();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    public RoaringBitmap getFailedIndexes() {
+        indexLock.lock();
+        try {
+            return failedIndexes.clone();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public boolean isSuccessful() {
+        return failed.get() == 0 && deferred.get() == 0;
+    }
+
+    public boolean isDeferred() {
+        return failed.get() == 0 && deferred.get() > 0;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.notification.worker;
+
+import com.example.notification.config.WorkerProperties;
+import com.example.notification.entity.DeliveredUnit;
+import com.example.notification.repository.DeliveredUnitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers which (notification, channel, chunk) units were already delivered
+ * from each partition, so a record redelivered after a rebalance or an error
+ * handler seek skips them instead of sending twice.
+ *
+ * <p>Only offsets at or above a partition's watermark can be redelivered, so
+ * each partition keeps just the units of that window in memory and a lookup is
+ * one hash probe. The watermark is the assigned position, then the lowest
+ * offset of each delivery. Units are checkpointed to the database before the
+ * offsets commit, and a new owner of the partition reloads the window on
+ * assignment.
+ */
+@Component
+@Slf4j
+public class DeliveryLedger {
+
+    private final DeliveredUnitRepository repository;
+    private final boolean enabled;
+    private final Map<TopicPartition, PartitionLedger> partitions = new ConcurrentHashMap<>();
+    private final Queue<DeliveredUnit> unflushed = new ConcurrentLinkedQueue<>();
+
+    public DeliveryLedger(DeliveredUnitRepository repository, WorkerProperties properties) {
+        this.repository = repository;
+        this.enabled = properties.getDedup().isEnabled();
+    }
+
+    public static String unitKey(String notificationId, String statusKey) {
+        return notificationId + "/" + statusKey;
+    }
+
+    /**
+     * Prunes checkpoints the committed positions have passed and loads the rest.
+     */
+    public void assigned(Map<TopicPartition, Long> positions) {
+        if (!enabled) {
+            return;
+        }
+        positions.forEach((partition, position) -> {
+            repository.deleteBelow(partition.topic(), partition.partition(), position);
+            PartitionLedger ledger = new PartitionLedger(position);
+            repository.findUnits(partition.topic(), partition.partition(), position).forEach(ledger::add);
+            partitions.put(partition, ledger);
+            log.info("Loaded {} delivered units for {} from offset {}", ledger.units.size(), partition, position);
+        });
+    }
+
+    public void revoked(Collection<TopicPartition> revoked) {
+        revoked.forEach(partitions::remove);
+    }
+
+    /**
+     * Moves each partition's watermark to the first offset of this delivery;
+     * everything below it was processed and can no longer come back to this consumer.
+     */
+    public void advance(List<? extends ConsumerRecord<?, ?>> records) {
+        if (!enabled) {
+            return;
+        }
+        Set<TopicPartition> seen = new HashSet<>();
+        for (ConsumerRecord<?, ?> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (seen.add(partition)) {
+                ledger(partition).advance(record.offset());
+            }
+        }
+    }
+
+    public boolean isDelivered(ConsumerRecord<?, ?> record, String unitKey) {
+        return enabled && ledger(new TopicPartition(record.topic(), record.partition())).contains(unitKey);
+    }
+
+    /**
+     * Called once a unit needs no further work from this record: it was sent, or
+     * its failures were handed to a retry topic.
+     */
+    public void markDelivered(ConsumerRecord<?, ?> record, String unitKey) {
+        if (!enabled) {
+            return;
+        }
+        ledger(new TopicPartition(record.topic(), record.partition())).add(unitKey, record.offset());
+        unflushed.add(new DeliveredUnit(new DeliveredUnit.Key(record.topic(), record.partition(), unitKey), record.offset()));
+    }
+
+    /**
+     * Writes the units marked since the last checkpoint; must run before the offsets commit.
+     */
+    public void checkpoint() {
+        List<DeliveredUnit> batch = new ArrayList<>();
+        DeliveredUnit unit;
+        while ((unit = unflushed.poll()) != null) {
+            batch.add(unit);
+        }
+        repository.saveUnits(batch);
+    }
+
+    /**
+     * Deletes checkpoints below the watermark seen on the previous run; by then
+     * those offsets have been committed, so no other owner can need them.
+     */
+    @Scheduled(fixedDelayString = "${notification.worker.dedup.purge-interval-ms:60000}")
+    public void purge() {
+        partitions.forEach((partition, ledger) -> {
+            long purgeBelow = ledger.rollPurgeWatermark();
+            if (purgeBelow > 0) {
+                repository.deleteBelow(partition.topic(), partition.partition(), purgeBelow);
+            }
+        });
+    }
+
+    private PartitionLedger ledger(TopicPartition partition) {
+        return partitions.computeIfAbsent(partition, p -> new PartitionLedger(0));
+    }
+
+    private static class PartitionLedger {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Set<String> units = new HashSet<>();
+        private final NavigableMap<Long, List<String>> unitsByOffset = new TreeMap<>();
+        private long watermark;
+        private long previousWatermark;
+
+        PartitionLedger(long watermark) {
+            this.watermark = watermark;
+            this.previousWatermark = watermark;
+        }
+
+        boolean contains(String unitKey) {
+            lock.lock();
+            try {
+                return units.contains(unitKey);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(String unitKey, long offset) {
+            lock.lock();
+            try {
+                if (units.add(unitKey)) {
+                    unitsByOffset.computeIfAbsent(offset, o -> new ArrayList<>(2)).add(unitKey);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void advance(long offset) {
+            lock.lock();
+            try {
+                if (offset <= watermark) {
+                    return;
+                }
+                watermark = offset;
+                Map<Long, List<String>> passed = unitsByOffset.headMap(offset, false);
+                passed.values().forEach(units::removeAll);
+                passed.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long rollPurgeWatermark() {
+            lock.lock();
+            try {
+                long purgeBelow = previousWatermark;
+                previousWatermark = watermark;
+                return purgeBelow;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
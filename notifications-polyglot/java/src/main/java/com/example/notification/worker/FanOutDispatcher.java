@@ -0,0 +1,239 @@
+package com.example.notification.worker;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.SendResult;
+import com.example.notification.dto.Priority;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.resilience.BulkheadFullException;
+import com.example.notification.resilience.CallTimeoutException;
+import com.example.notification.resilience.ChannelBulkhead;
+import com.example.notification.resilience.ChannelBulkheads;
+import com.example.notification.resilience.ChannelRateLimiter;
+import com.example.notification.resilience.CircuitBreaker;
+import com.example.notification.resilience.CircuitBreakers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Dispatches every (channel, recipient batch) send on its own virtual thread.
+ * Recipients are split by the adapter's {@link ChannelAdapter#maxBatchSize()},
+ * each channel runs in its own {@link ChannelBulkhead} lane behind a
+ * {@link CircuitBreaker}, and {@link #dispatchAll} only returns once every send
+ * has finished. Sends shed by an open breaker or a full lane are recorded as
+ * deferred rather than failed.
+ *
+ * <p>Each lane hands the bulkhead at most as many batches as the channel has
+ * slots and submits the next one as a batch finishes. A large notification
+ * therefore waits here, at its own pace, instead of parking every batch in the
+ * bulkhead queue where the tail would outlive max-queue-wait-ms or overflow the
+ * queue depth and be deferred.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FanOutDispatcher {
+
+    private final ChannelBulkheads bulkheads;
+    private final ChannelRateLimiter rateLimiter;
+    private final CircuitBreakers circuitBreakers;
+
+    /**
+     * @param chunk            which of {@code chunkCount} Kafka records of the notification this job came from
+     * @param priority         lane queue the job's sends wait in
+     * @param recipientIndexes position of each recipient in the notification's full
+     *                         recipient list, or null when recipientIds is that list
+     * @param messages         per-recipient text rendered from a template, parallel to
+     *                         recipientIds, or null when {@code message} goes to everyone
+     */
+    public record DispatchJob(String notificationId, int chunk, int chunkCount, String tenantId, Priority priority,
+                              Map<String, ChannelAdapter> adapters, List<String> recipientIds,
+                              List<Integer> recipientIndexes, String message, List<String> messages) {
+
+        public DispatchJob(String notificationId, String tenantId, Map<String, ChannelAdapter> adapters,
+                           List<String> recipientIds, String message) {
+            this(notificationId, 0, 1, tenantId, Priority.NORMAL, adapters, recipientIds, null, message, null);
+        }
+
+        int indexOf(int position) {
+            return recipientIndexes == null ? position : recipientIndexes.get(position);
+        }
+
+        /**
+         * @return the text of the recipient at each index, or null when every recipient gets {@code message}
+         */
+        public IntFunction<String> messageByIndex() {
+            if (messages == null) {
+                return null;
+            }
+            Map<Integer, String> byIndex = new HashMap<>(messages.size() * 2);
+            for (int i = 0; i < messages.size(); i++) {
+                byIndex.put(indexOf(i), messages.get(i));
+            }
+            return byIndex::get;
+        }
+    }
+
+    // message is set only in personalized lanes, where every recipient has its own text
+    private record Target(String recipientId, int index, ChannelOutcome outcome, String message) {
+    }
+
+    // message is null for a personalized lane
+    private record Lane(String channel, ChannelAdapter adapter, String tenantId, Priority priority, String message,
+                        boolean personalized) {
+    }
+
+    public Map<String, ChannelOutcome> dispatch(Map<String, ChannelAdapter> adapters, List<String> recipientIds, String message) {
+        return dispatchAll(List.of(new DispatchJob("", null, adapters, recipientIds, message)), outcome -> {
+        }).get("");
+    }
+
+    /**
+     * Dispatches several notifications together. Sends that share a channel and
+     * message text are merged into the same provider batches, so many small
+     * notifications cost a few bulk calls instead of one call each. Personalized
+     * sends share one lane per channel and go out through
+     * {@link ChannelAdapter#sendPersonalizedBatch}; see there for what they cost.
+     * {@code onChannelDone} is called for each (notification, channel) as soon
+     * as its lane finishes, without waiting for slower channels.
+     */
+    public Map<String, Map<String, ChannelOutcome>> dispatchAll(List<DispatchJob> jobs, Consumer<ChannelOutcome> onChannelDone) {
+        Map<String, Map<String, ChannelOutcome>> outcomes = new LinkedHashMap<>();
+        Map<Lane, List<Target>> lanes = new LinkedHashMap<>();
+        List<ChannelOutcome> nothingToSend = new ArrayList<>();
+        for (DispatchJob job : jobs) {
+            Map<String, ChannelOutcome> jobOutcomes = outcomes.computeIfAbsent(job.notificationId(), id -> new LinkedHashMap<>());
+            job.adapters().forEach((channel, adapter) -> {
+                ChannelOutcome outcome = jobOutcomes.computeIfAbsent(NotificationStatus.channelKey(channel, job.chunk(), job.chunkCount()),
+                        key -> new ChannelOutcome(job.notificationId(), channel, job.chunk(), job.chunkCount()));
+                if (job.recipientIds().isEmpty()) {
+                    nothingToSend.add(outcome);
+                    return;
+                }
+                boolean personalized = job.messages() != null;
+                Lane lane = new Lane(channel.toLowerCase(), adapter, job.tenantId(), Priority.orNormal(job.priority()),
+                        personalized ? null : job.message(), personalized);
+                List<Target> targets = lanes.computeIfAbsent(lane, key -> new ArrayList<>());
+                for (int i = 0; i < job.recipientIds().size(); i++) {
+                    targets.add(new Target(job.recipientIds().get(i), job.indexOf(i), outcome,
+                            personalized ? job.messages().get(i) : null));
+                }
+            });
+        }
+
+        nothingToSend.forEach(onChannelDone);
+
+        // Closing the executor joins every lane, and each lane joins its own sends
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            lanes.forEach((lane, targets) -> executor.submit(() -> {
+                dispatchLane(lane, targets);
+                Set<ChannelOutcome> done = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Target target : targets) {
+                    if (done.add(target.outcome())) {
+                        onChannelDone.accept(target.outcome());
+                    }
+                }
+            }));
+        }
+        return outcomes;
+    }
+
+    private void dispatchLane(Lane lane, List<Target> targets) {
+        ChannelBulkhead bulkhead = bulkheads.forChannel(lane.channel());
+        CircuitBreaker breaker = circuitBreakers.forChannel(lane.channel());
+        int batchSize = Math.max(1, lane.adapter().maxBatchSize());
+        Semaphore window = new Semaphore(bulkhead.maxConcurrent(lane.priority().ordinal()));
+        try (ExecutorService sends = Executors.newThreadPerTaskExecutor(bulkhead.threadFactory())) {
+            for (int from = 0; from < targets.size(); from += batchSize) {
+                List<Target> chunk = targets.subList(from, Math.min(from + batchSize, targets.size()));
+                try {
+                    window.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    targets.subList(from, targets.size()).forEach(target ->
+                            target.outcome().recordFailure(target.index(), target.recipientId(), "interrupted"));
+                    break;
+                }
+                sends.submit(() -> {
+                    try {
+                        pacedSend(lane, bulkhead, breaker, chunk);
+                    } finally {
+                        window.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void pacedSend(Lane lane, ChannelBulkhead bulkhead, CircuitBreaker breaker, List<Target> chunk) {
+        // Skip pacing when the breaker would reject anyway
+        if (breaker.isOpen()) {
+            chunk.forEach(target -> target.outcome().recordDeferred(target.index(), target.recipientId()));
+            return;
+        }
+        try {
+            // Paced before taking a slot, so a send waiting for quota never holds one;
+            // the lane window bounds how far ahead any one lane can book the quota
+            rateLimiter.acquire(lane.channel(), lane.tenantId(), chunk.size());
+            bulkhead.execute(lane.priority().ordinal(), () -> sendChunk(lane, breaker, chunk));
+        } catch (BulkheadFullException e) {
+            log.warn("Deferred {} batch of {} recipients: {}", lane.channel(), chunk.size(), e.getMessage());
+            chunk.forEach(target -> target.outcome().recordDeferred(target.index(), target.recipientId()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunk.forEach(target -> target.outcome().recordFailure(target.index(), target.recipientId(), "interrupted"));
+        }
+    }
+
+    private void sendChunk(Lane lane, CircuitBreaker breaker, List<Target> chunk) {
+        CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        if (permit == null) {
+            chunk.forEach(target -> target.outcome().recordDeferred(target.index(), target.recipientId()));
+            return;
+        }
+        List<String> recipientIds = new ArrayList<>(chunk.size());
+        List<String> messages = lane.personalized() ? new ArrayList<>(chunk.size()) : null;
+        for (Target target : chunk) {
+            recipientIds.add(target.recipientId());
+            if (messages != null) {
+                messages.add(target.message());
+            }
+        }
+        try {
+            // Both return results in input order
+            List<SendResult> results = breaker.execute(permit, () -> messages == null
+                    ? lane.adapter().sendBatch(recipientIds, lane.message())
+                    : lane.adapter().sendPersonalizedBatch(recipientIds, messages));
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i < results.size()) {
+                    chunk.get(i).outcome().record(chunk.get(i).index(), results.get(i));
+                } else {
+                    chunk.get(i).outcome().recordFailure(chunk.get(i).index(), chunk.get(i).recipientId(), "no result from provider");
+                }
+            }
+        } catch (CallTimeoutException e) {
+            log.error("Timed out sending {} batch of {} recipients: {}", lane.channel(), chunk.size(), e.getMessage());
+            chunk.forEach(target -> target.outcome().recordFailure(target.index(), target.recipientId(), e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunk.forEach(target -> target.outcome().recordFailure(target.index(), target.recipientId(), "interrupted"));
+        } catch (Exception e) {
+            log.error("Failed to send {} batch of {} recipients", lane.channel(), chunk.size(), e);
+            chunk.forEach(target -> target.outcome().recordFailure(target.index(), target.recipientId(), e.getMessage()));
+        }
+    }
+}
@@ -1,46 +1,283 @@
 package com.example.notification.worker;
 
+import com.example.notification.config.PriorityProperties;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.Priority;
+import com.example.notification.dto.RetryRequest;
 import com.example.notification.adapter.ChannelFactory;
 import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.repository.RecipientOutcomeDelta;
+import com.example.notification.service.DeliveryReportService;
+import com.example.notification.service.NotificationService;
+import com.example.notification.service.TemplateService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 @Component
 @Slf4j
-public class NotificationWorker {
+public class NotificationWorker implements ConsumerSeekAware {
+
+    private static final String HIGH_TOPIC = "${notification.priority.topics.high:notifications-high}";
+    private static final String NORMAL_TOPIC = "${notification.priority.topics.normal:notifications}";
+    private static final String LOW_TOPIC = "${notification.priority.topics.low:notifications-low}";
+    // Let the broker fill batches; only for the batch listeners of the NORMAL and LOW topics
+    private static final String BATCH_FETCH_MIN_BYTES = "fetch.min.bytes=${notification.worker.batch.fetch-min-bytes:65536}";
+    private static final String BATCH_FETCH_MAX_WAIT = "fetch.max.wait.ms=${notification.worker.batch.fetch-max-wait-ms:100}";
 
     private final ChannelFactory channelFactory;
     private final com.example.notification.service.NotificationStatusService statusService;
+    private final FanOutDispatcher fanOutDispatcher;
+    private final RetryScheduler retryScheduler;
+    private final DeliveryReportService deliveryReportService;
+    private final DeliveryLedger deliveryLedger;
+    private final PriorityProperties priorityProperties;
+    private final TemplateService templateService;
 
-    public NotificationWorker(ChannelFactory channelFactory, com.example.notification.service.NotificationStatusService statusService) {
+    public NotificationWorker(ChannelFactory channelFactory, com.example.notification.service.NotificationStatusService statusService,
+                              FanOutDispatcher fanOutDispatcher, RetryScheduler retryScheduler,
+                              DeliveryReportService deliveryReportService, DeliveryLedger deliveryLedger,
+                              PriorityProperties priorityProperties, TemplateService templateService) {
         this.channelFactory = channelFactory;
         this.statusService = statusService;
+        this.fanOutDispatcher = fanOutDispatcher;
+        this.retryScheduler = retryScheduler;
+        this.deliveryReportService = deliveryReportService;
+        this.deliveryLedger = deliveryLedger;
+        this.priorityProperties = priorityProperties;
+        this.templateService = templateService;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        deliveryLedger.assigned(assignments.entrySet().stream()
+                .filter(e -> priorityProperties.priorityOf(e.getKey().topic()).isPresent())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        deliveryLedger.revoked(partitions);
     }
 
-    @KafkaListener(topics = "notifications", groupId = "notification-workers")
+    /**
+     * One listener container per priority topic, so a campaign backlog never sits
+     * in front of an OTP in the same partition or poll; the channel lanes then
+     * share provider capacity between priorities by weight.
+     */
+    @KafkaListener(id = "notification-worker-high", topics = HIGH_TOPIC, groupId = "notification-workers",
+            autoStartup = "#{!${notification.worker.batch.enabled:false}}")
+    @KafkaListener(topics = NORMAL_TOPIC, groupId = "notification-workers",
+            autoStartup = "#{!${notification.worker.batch.enabled:false}}")
+    @KafkaListener(id = "notification-worker-low", topics = LOW_TOPIC, groupId = "notification-workers",
+            autoStartup = "#{!${notification.worker.batch.enabled:false}}")
     public void listen(ConsumerRecord<String, NotificationRequest> record) {
-        String notificationId = record.key();
-        NotificationRequest request = record.value();
-        
-        log.info("Processing notification [{}]: sending to channels {}", notificationId, request.getChannels());
-        
-        for (String channel : request.getChannels()) {
-            try {
-                statusService.updateChannelStatus(notificationId, channel, "PROCESSING");
-                ChannelAdapter adapter = channelFactory.getAdapter(channel);
-                for (String recipientId : request.getRecipientIds()) {
-                    adapter.send(recipientId, request.getMessage());
+        process(List.of(record));
+    }
+
+    /**
+     * Batch mode: each poll (up to spring.kafka.consumer.max-poll-records) is
+     * dispatched together and its status transitions are flushed once before
+     * the batch's offsets are committed. The HIGH topic keeps the default fetch
+     * settings so OTPs are not held back waiting for a batch to fill.
+     */
+    @KafkaListener(id = "notification-batch-worker-high", topics = HIGH_TOPIC, groupId = "notification-workers",
+            batch = "true", autoStartup = "${notification.worker.batch.enabled:false}")
+    @KafkaListener(id = "notification-batch-worker", topics = NORMAL_TOPIC, groupId = "notification-workers",
+            batch = "true", autoStartup = "${notification.worker.batch.enabled:false}",
+            properties = {BATCH_FETCH_MIN_BYTES, BATCH_FETCH_MAX_WAIT})
+    @KafkaListener(id = "notification-batch-worker-low", topics = LOW_TOPIC, groupId = "notification-workers",
+            batch = "true", autoStartup = "${notification.worker.batch.enabled:false}",
+            properties = {BATCH_FETCH_MIN_BYTES, BATCH_FETCH_MAX_WAIT})
+    public void listenBatch(List<ConsumerRecord<String, NotificationRequest>> records) {
+        log.info("Processing batch of {} notifications", records.size());
+        process(records);
+    }
+
+    private void process(List<ConsumerRecord<String, NotificationRequest>> records) {
+        deliveryLedger.advance(records);
+        try {
+            List<FanOutDispatcher.DispatchJob> jobs = new ArrayList<>(records.size());
+            Map<String, ConsumerRecord<?, ?>> sources = new HashMap<>();
+            for (ConsumerRecord<String, NotificationRequest> record : records) {
+                // Chunked records are keyed per chunk and carry the notification id in a header
+                String notificationId = header(record, NotificationService.NOTIFICATION_ID_HEADER, record.key());
+                int chunk = Integer.parseInt(header(record, NotificationService.CHUNK_INDEX_HEADER, "0"));
+                int chunkCount = Integer.parseInt(header(record, NotificationService.CHUNK_COUNT_HEADER, "1"));
+                int recipientOffset = Integer.parseInt(header(record, NotificationService.RECIPIENT_OFFSET_HEADER, "0"));
+                NotificationRequest request = record.value();
+                Priority priority = priorityProperties.priorityOf(record.topic())
+                        .orElse(Priority.orNormal(request.getPriority()));
+
+                log.info("Processing notification [{}] chunk {}/{}: sending to channels {}", notificationId, chunk + 1,
+                        chunkCount, request.getChannels());
+
+                TemplateService.Rendered rendered = request.getTemplateId() == null
+                        ? new TemplateService.Rendered(request.getMessage(), null)
+                        : templateService.render(request).orElse(null);
+
+                Map<String, ChannelAdapter> adapters = new LinkedHashMap<>();
+                int redelivered = 0;
+                for (String channel : request.getChannels()) {
+                    String statusKey = NotificationStatus.channelKey(channel, chunk, chunkCount);
+                    String unitKey = DeliveryLedger.unitKey(notificationId, statusKey);
+                    // A redelivered record must not re-send, nor regress the status back to PROCESSING
+                    if (deliveryLedger.isDelivered(record, unitKey)) {
+                        log.info("Skipping channel {} for notification [{}]: already delivered", channel, notificationId);
+                        redelivered++;
+                        continue;
+                    }
+                    if (rendered == null) {
+                        // Checked on enqueue, so only a template deleted from the table behind our back
+                        log.error("Template {} of notification [{}] is not registered", request.getTemplateId(), notificationId);
+                        statusService.stageChannelStatus(notificationId, statusKey, "FAILED");
+                        continue;
+                    }
+                    sources.put(unitKey, record);
+                    try {
+                        statusService.stageChannelStatus(notificationId, statusKey, "PROCESSING");
+                        adapters.put(channel, channelFactory.getAdapter(channel));
+                    } catch (Exception e) {
+                        log.error("Failed to process channel {} for notification [{}]", channel, notificationId, e);
+                        statusService.stageChannelStatus(notificationId, statusKey, "FAILED");
+                    }
+                }
+                if (redelivered == request.getChannels().size() || rendered == null) {
+                    continue;
                 }
-                statusService.updateChannelStatus(notificationId, channel, "COMPLETED");
-            } catch (Exception e) {
-                log.error("Failed to process channel {} for notification [{}]", channel, notificationId, e);
-                statusService.updateChannelStatus(notificationId, channel, "FAILED");
+                List<Integer> recipientIndexes = recipientOffset == 0 ? null
+                        : IntStream.range(recipientOffset, recipientOffset + request.getRecipientIds().size()).boxed().toList();
+                jobs.add(new FanOutDispatcher.DispatchJob(notificationId, chunk, chunkCount, request.getTenantId(), priority, adapters,
+                        request.getRecipientIds(), recipientIndexes, rendered.message(), rendered.messages()));
+            }
+
+            dispatch(jobs, 0, sources);
+            for (FanOutDispatcher.DispatchJob job : jobs) {
+                log.info("Notification [{}] processed successfully", job.notificationId());
+            }
+        } finally {
+            // Ack only after the transitions above are durable (FLUSH_BEFORE_ACK mode)
+            try {
+                deliveryLedger.checkpoint();
+            } finally {
+                statusService.commitStagedStatuses();
             }
         }
-        
-        log.info("Notification [{}] processed successfully", notificationId);
+    }
+
+    /**
+     * Consumes one delay tier; each tier has its own listener container (see
+     * KafkaRetryConfig#retryTierListeners). A record that is not due yet is
+     * nacked with the remaining delay, which pauses that container's consumer
+     * rather than the thread; records in one tier share a delay, so the head of
+     * each partition is always due first.
+     */
+    public void listenRetry(ConsumerRecord<String, RetryRequest> record, Acknowledgment ack) {
+        RetryRequest retry = record.value();
+        long waitMs = retry.getNotBefore() - System.currentTimeMillis();
+        if (waitMs > 0) {
+            ack.nack(Duration.ofMillis(waitMs));
+            return;
+        }
+
+        log.info("Retrying channel {} for notification [{}], attempt {} ({} recipients)", retry.getChannel(),
+                retry.getNotificationId(), retry.getAttempt(), retry.getRecipientIds().size());
+        try {
+            ChannelAdapter adapter = channelFactory.getAdapter(retry.getChannel());
+            dispatch(List.of(new FanOutDispatcher.DispatchJob(retry.getNotificationId(), retry.getChunk(), retry.getChunkCount(),
+                    retry.getTenantId(), Priority.orNormal(retry.getPriority()), Map.of(retry.getChannel(), adapter), retry.getRecipientIds(),
+                    retry.getRecipientIndexes(), retry.getMessage(), retry.getMessages())), retry.getAttempt(), Map.of());
+        } finally {
+            statusService.commitStagedStatuses();
+        }
+        ack.acknowledge();
+    }
+
+    private record JobKey(String notificationId, int chunk) {
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name, String fallback) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? fallback : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param sources record each (notification, channel, chunk) unit came from, for units the
+     *                {@link DeliveryLedger} should remember once they are handed off
+     */
+    private void dispatch(List<FanOutDispatcher.DispatchJob> jobs, int attempt, Map<String, ConsumerRecord<?, ?>> sources) {
+        // Two chunks of one notification can share a poll, so jobs are told apart by chunk too
+        Map<JobKey, FanOutDispatcher.DispatchJob> jobsByKey = new HashMap<>();
+        for (FanOutDispatcher.DispatchJob job : jobs) {
+            jobsByKey.put(new JobKey(job.notificationId(), job.chunk()), job);
+        }
+        Queue<CompletableFuture<?>> handOffs = new ConcurrentLinkedQueue<>();
+        Queue<RecipientOutcomeDelta> deliveries = new ConcurrentLinkedQueue<>();
+        // Each channel's final status is staged as soon as its lane finishes, so a slow
+        // provider does not delay reporting for the others
+        fanOutDispatcher.dispatchAll(jobs, outcome -> {
+            deliveries.add(new RecipientOutcomeDelta(outcome.getNotificationId(), outcome.getChannel(),
+                    outcome.getSucceededIndexes(), outcome.getFailedIndexes()));
+            CompletableFuture<?> handOff = stageOutcome(outcome,
+                    jobsByKey.get(new JobKey(outcome.getNotificationId(), outcome.getChunk())), attempt);
+            String unitKey = DeliveryLedger.unitKey(outcome.getNotificationId(), outcome.getStatusKey());
+            ConsumerRecord<?, ?> source = sources.get(unitKey);
+            if (source != null) {
+                handOff = handOff.thenRun(() -> deliveryLedger.markDelivered(source, unitKey));
+            }
+            handOffs.add(handOff);
+        });
+        // One merge for the whole dispatch; per-recipient bitmaps are not buffered like channel statuses
+        deliveryReportService.recordOutcomes(deliveries);
+        // Retry units must be on their delay topic before the source offset is committed
+        CompletableFuture.allOf(handOffs.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * @return completes once the unit needs nothing more from this record
+     */
+    private CompletableFuture<?> stageOutcome(ChannelOutcome outcome, FanOutDispatcher.DispatchJob job, int attempt) {
+        String notificationId = outcome.getNotificationId();
+        String channel = outcome.getChannel();
+        String statusKey = outcome.getStatusKey();
+        if (outcome.isSuccessful()) {
+            statusService.stageChannelStatus(notificationId, statusKey, "COMPLETED");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (outcome.isDeferred()) {
+            log.warn("Channel {} for notification [{}] deferred for {} of {} recipients", channel, notificationId,
+                    outcome.getDeferred(), outcome.getSucceeded() + outcome.getDeferred());
+        } else {
+            log.error("Channel {} for notification [{}] failed for {} of {} recipients", channel, notificationId,
+                    outcome.getFailed(), outcome.getSucceeded() + outcome.getFailed() + outcome.getDeferred());
+        }
+        if (retryScheduler.canRetry(attempt)) {
+            statusService.stageChannelStatus(notificationId, statusKey, outcome.isDeferred() ? "DEFERRED" : "RETRYING");
+        } else {
+            statusService.stageChannelStatus(notificationId, statusKey, "FAILED");
+        }
+        // Dead-letters the unit once no retry tier is left
+        return retryScheduler.schedule(outcome, job.tenantId(), job.priority(), job.message(), job.messageByIndex(), attempt);
     }
 }
@@ -0,0 +1,109 @@
+package com.example.notification.worker;
+
+import com.example.notification.config.RetryProperties;
+import com.example.notification.dto.Priority;
+import com.example.notification.dto.RetryRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Republishes failed (channel, recipients) units to tiered delay topics so the
+ * main topic never blocks on a retry. Attempt n goes to the n-th delay topic;
+ * once every tier has been used the unit goes to the dead-letter topic. With
+ * retries disabled every failure is dead-lettered on the first attempt, unless
+ * notification.retry.dead-letter-when-disabled is off.
+ */
+@Component
+@Slf4j
+public class RetryScheduler {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final RetryProperties properties;
+    private final List<String> topics;
+
+    public RetryScheduler(KafkaTemplate<String, Object> kafkaTemplate, RetryProperties properties) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.topics = properties.getDelays().stream()
+                .map(delay -> properties.getTopicPrefix() + "-" + suffix(delay))
+                .toList();
+    }
+
+    public String[] retryTopics() {
+        return topics.toArray(String[]::new);
+    }
+
+    public String deadLetterTopic() {
+        return properties.getDeadLetterTopic();
+    }
+
+    public boolean canRetry(int attempt) {
+        return properties.isEnabled() && attempt < topics.size();
+    }
+
+    /**
+     * Publishes the next attempt after {@code previousAttempt} (0 for the
+     * original send), or dead-letters the unit when no tier is left.
+     *
+     * @param messageByIndex per-recipient text by recipient index, or null when {@code message} goes to everyone
+     * @return the pending send; must complete before the source offset is committed
+     */
+    public CompletableFuture<?> schedule(ChannelOutcome outcome, String tenantId, Priority priority, String message,
+                                         IntFunction<String> messageByIndex, int previousAttempt) {
+        RetryRequest retry = new RetryRequest();
+        retry.setNotificationId(outcome.getNotificationId());
+        retry.setChannel(outcome.getChannel());
+        retry.setChunk(outcome.getChunk());
+        retry.setChunkCount(outcome.getChunkCount());
+        retry.setTenantId(tenantId);
+        retry.setPriority(priority);
+        List<ChannelOutcome.Recipient> recipients = outcome.getRetryRecipients();
+        retry.setRecipientIds(recipients.stream().map(ChannelOutcome.Recipient::id).toList());
+        retry.setRecipientIndexes(recipients.stream().map(ChannelOutcome.Recipient::index).toList());
+        retry.setMessage(message);
+        if (messageByIndex != null) {
+            retry.setMessages(recipients.stream().map(recipient -> messageByIndex.apply(recipient.index())).toList());
+        }
+        retry.setLastError(outcome.getLastError());
+
+        if (!properties.isEnabled() && !properties.isDeadLetterWhenDisabled()) {
+            log.warn("Not retrying channel {} for notification [{}]: retries are disabled ({} recipients failed)",
+                    retry.getChannel(), retry.getNotificationId(), retry.getRecipientIds().size());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!canRetry(previousAttempt)) {
+            retry.setAttempt(previousAttempt);
+            log.warn("Dead-lettering channel {} for notification [{}] after {} attempts ({} recipients)",
+                    retry.getChannel(), retry.getNotificationId(), previousAttempt, retry.getRecipientIds().size());
+            return kafkaTemplate.send(properties.getDeadLetterTopic(), retry.getNotificationId(), retry);
+        }
+
+        int attempt = previousAttempt + 1;
+        Duration delay = properties.getDelays().get(attempt - 1);
+        retry.setAttempt(attempt);
+        retry.setNotBefore(System.currentTimeMillis() + delay.toMillis());
+        log.info("Scheduling retry {} for channel {} of notification [{}] in {} ({} recipients)",
+                attempt, retry.getChannel(), retry.getNotificationId(), delay, retry.getRecipientIds().size());
+        return kafkaTemplate.send(topics.get(attempt - 1), retry.getNotificationId(), retry);
+    }
+
+    private static String suffix(Duration delay) {
+        long seconds = delay.toSeconds();
+        if (delay.toMillis() % 1000 != 0) {
+            return delay.toMillis() + "ms";
+        }
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+}
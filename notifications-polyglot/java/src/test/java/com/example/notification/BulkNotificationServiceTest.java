@@ -0,0 +1,81 @@
+package com.example.notification;
+
+import com.example.notification.config.EnqueueProperties;
+import com.example.notification.service.BulkNotificationService;
+import com.example.notification.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkNotificationServiceTest {
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+
+    private BulkNotificationService service(int batchSize) {
+        EnqueueProperties properties = new EnqueueProperties();
+        properties.setBulkBatchSize(batchSize);
+        return new BulkNotificationService(notificationService, new ObjectMapper(), properties);
+    }
+
+    private static String run(BulkNotificationService service, String ndjson) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.enqueueStream(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldReportIdsAndErrorsPerLine() throws Exception {
+        when(notificationService.enqueueNotifications(anyList())).thenReturn(List.of("id-1", "id-3"));
+
+        String response = run(service(100), """
+                {"channels":["email"],"recipientIds":["u1"],"message":"a"}
+                {"channels":["email"],
+                {"channels":["sms"],"recipientIds":["u2"],"message":"b"}
+                {"channels":[],"recipientIds":["u3"],"message":"c"}
+                """);
+
+        List<String> lines = response.lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("{\"line\":1,\"notification_id\":\"id-1\"}");
+        assertThat(lines.get(1)).startsWith("{\"line\":2,\"error\":\"Malformed JSON");
+        assertThat(lines.get(2)).isEqualTo("{\"line\":3,\"notification_id\":\"id-3\"}");
+        assertThat(lines.get(3)).isEqualTo("{\"line\":4,\"error\":\"channels must not be empty\"}");
+    }
+
+    @Test
+    void shouldEnqueueOneTransactionPerBatch() throws Exception {
+        when(notificationService.enqueueNotifications(anyList())).thenReturn(List.of("a", "b"), List.of("c"));
+
+        String response = run(service(2), """
+                {"channels":["email"],"recipientIds":["u1"]}
+                {"channels":["email"],"recipientIds":["u2"]}
+
+                {"channels":["email"],"recipientIds":["u3"]}
+                """);
+
+        verify(notificationService, times(2)).enqueueNotifications(anyList());
+        assertThat(response.lines()).hasSize(3).last().asString().contains("\"line\":4", "\"c\"");
+    }
+
+    @Test
+    void shouldRejectWholeBatchWhenEnqueueFails() throws Exception {
+        when(notificationService.enqueueNotifications(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        String response = run(service(10), """
+                {"channels":["email"],"recipientIds":["u1"]}
+                """);
+
+        assertThat(response).contains("\"error\":\"Enqueue failed: db down\"");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.notification;
+
+import com.example.notification.resilience.BulkheadFullException;
+import com.example.notification.resilience.ChannelBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChannelBulkheadTest {
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ChannelBulkhead bulkhead = new ChannelBulkhead("sms", 1, 1, 5_000, registry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                bulkhead.execute(() -> {
+                    running.countDown();
+                    awaitQuietly(release);
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                bulkhead.execute(() -> {
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (bulkhead.queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> bulkhead.execute(() -> {
+        })).isInstanceOf(BulkheadFullException.class).hasMessageContaining("queue is full");
+        assertThat(registry.get("notification.lane.queue.depth").tag("channel", "sms").gauge().value()).isEqualTo(1.0);
+
+        release.countDown();
+        holder.join();
+        waiter.join();
+        assertThat(bulkhead.queueDepth()).isZero();
+    }
+
+    @Test
+    void shouldRejectWhenNoSlotFreesUpInTime() throws Exception {
+        ChannelBulkhead bulkhead = new ChannelBulkhead("sms", 1, 10, 20, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                bulkhead.execute(() -> {
+                    running.countDown();
+                    awaitQuietly(release);
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        running.await();
+
+        assertThatThrownBy(() -> bulkhead.execute(() -> {
+        })).isInstanceOf(BulkheadFullException.class).hasMessageContaining("no free slot");
+
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    void shouldHandFreedSlotsToHigherPriorityFirst() throws Exception {
+        ChannelBulkhead bulkhead = new ChannelBulkhead("sms", 1, 10, 5_000, new int[]{16, 1}, 0, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Thread holder = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 1, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        }));
+        running.await();
+        Thread low = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 1, () -> order.add("low")));
+        while (bulkhead.queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+        Thread high = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 0, () -> order.add("high")));
+        while (bulkhead.queueDepth() < 2) {
+            Thread.onSpinWait();
+        }
+
+        release.countDown();
+        holder.join();
+        low.join();
+        high.join();
+        assertThat(order).containsExactly("high", "low");
+    }
+
+    @Test
+    void shouldKeepReservedSlotsForHighPriority() throws Exception {
+        ChannelBulkhead bulkhead = new ChannelBulkhead("sms", 2, 10, 20, new int[]{16, 1}, 1, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        Thread holder = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 1, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        }));
+        running.await();
+
+        assertThat(bulkhead.maxConcurrent(1)).isEqualTo(1);
+        assertThatThrownBy(() -> bulkhead.execute(1, () -> ran.add("low")))
+                .isInstanceOf(BulkheadFullException.class).hasMessageContaining("no free slot");
+        bulkhead.execute(0, () -> ran.add("high"));
+
+        release.countDown();
+        holder.join();
+        assertThat(ran).containsExactly("high");
+    }
+
+    @Test
+    void shouldQueueHighPriorityPastDepthAndWaitLimits() throws Exception {
+        ChannelBulkhead bulkhead = new ChannelBulkhead("sms", 1, 1, 20, new int[]{16, 1}, 0, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        Thread holder = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 0, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        }));
+        running.await();
+        Thread first = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 0, () -> ran.add("first")));
+        Thread second = Thread.ofVirtual().start(() -> runQuietly(bulkhead, 0, () -> ran.add("second")));
+        while (bulkhead.queueDepth() < 2) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(50);
+
+        release.countDown();
+        holder.join();
+        first.join();
+        second.join();
+        assertThat(ran).containsExactlyInAnyOrder("first", "second");
+    }
+
+    private static void runQuietly(ChannelBulkhead bulkhead, int level, Runnable call) {
+        try {
+            bulkhead.execute(level, call);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.notification;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.ChannelFactory;
+import com.example.notification.adapter.EmailAdapter;
+import com.example.notification.adapter.PushAdapter;
+import com.example.notification.adapter.SmsAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChannelFactoryTest {
+
+    private final EmailAdapter email = new EmailAdapter(500);
+    private final SmsAdapter sms = new SmsAdapter(100);
+    private final PushAdapter push = new PushAdapter(1000);
+
+    @Test
+    void shouldRouteChannelsCaseInsensitively() {
+        ChannelFactory factory = new ChannelFactory(List.of(email, sms, push));
+
+        assertThat(factory.getAdapter("email")).isSameAs(email);
+        assertThat(factory.getAdapter("SMS")).isSameAs(sms);
+        assertThat(factory.getAdapter(" Push ")).isSameAs(push);
+        assertThat(factory.getRegisteredChannels()).containsExactly("email", "push", "sms");
+    }
+
+    @Test
+    void shouldListRegisteredChannelsForUnsupportedChannel() {
+        ChannelFactory factory = new ChannelFactory(List.of(email, sms));
+
+        assertThatThrownBy(() -> factory.getAdapter("voice"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported channel: voice")
+                .hasMessageContaining("[email, sms]");
+    }
+
+    @Test
+    void shouldRejectConflictingChannelDeclarations() {
+        ChannelAdapter secondEmail = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("EMAIL");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+            }
+        };
+
+        assertThatThrownBy(() -> new ChannelFactory(List.of(email, secondEmail)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Channel 'email' is declared by both");
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notification;
+
+import com.example.notification.config.RateLimitProperties;
+import com.example.notification.resilience.ChannelRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelRateLimiterTest {
+
+    private ChannelRateLimiter limiter(double permitsPerSecond, int burst, Double tenantPermitsPerSecond) {
+        RateLimitProperties.ChannelLimit limit = new RateLimitProperties.ChannelLimit();
+        limit.setPermitsPerSecond(permitsPerSecond);
+        limit.setBurst(burst);
+        limit.setTenantPermitsPerSecond(tenantPermitsPerSecond);
+        limit.setTenantBurst(tenantPermitsPerSecond == null ? null : 1);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getChannels().put("sms", limit);
+        return new ChannelRateLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldAllowBurstThenThrottle() {
+        ChannelRateLimiter limiter = limiter(1, 3, null);
+
+        assertThat(limiter.tryAcquire("sms", null, 3)).isTrue();
+        assertThat(limiter.tryAcquire("SMS", null, 1)).isFalse();
+        assertThat(limiter.tryAcquire("email", null, 1000)).isTrue();
+    }
+
+    @Test
+    void shouldPaceBlockingAcquisitions() throws InterruptedException {
+        ChannelRateLimiter limiter = limiter(100, 1, null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire("sms", null, 1);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // First permit is free, the next five are spaced 10 ms apart
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    void shouldLimitTenantsIndependently() {
+        ChannelRateLimiter limiter = limiter(1000, 1000, 1.0);
+
+        assertThat(limiter.tryAcquire("sms", "tenant-a", 1)).isTrue();
+        assertThat(limiter.tryAcquire("sms", "tenant-a", 1)).isFalse();
+        assertThat(limiter.tryAcquire("sms", "tenant-b", 1)).isTrue();
+    }
+
+    @Test
+    void shouldRefundTenantPermitsWhenTheChannelIsExhausted() throws InterruptedException {
+        ChannelRateLimiter limiter = limiter(100, 1, 1.0);
+
+        assertThat(limiter.tryAcquire("sms", "tenant-a", 1)).isTrue();
+        // The channel bucket rejects tenant-b, whose own permit must not be spent on it
+        assertThat(limiter.tryAcquire("sms", "tenant-b", 1)).isFalse();
+
+        Thread.sleep(20);
+        assertThat(limiter.tryAcquire("sms", "tenant-b", 1)).isTrue();
+    }
+
+    @Test
+    void shouldHoldTheChannelRateWhenAThrottledTenantSendsLate() throws InterruptedException {
+        // Channel: one send per 100 ms; each tenant: one per 500 ms
+        ChannelRateLimiter limiter = limiter(10, 1, 2.0);
+        Queue<Long> sentAt = new ConcurrentLinkedQueue<>();
+
+        Thread throttled = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2; i++) {
+                    limiter.acquire("sms", "tenant-a", 1);
+                    sentAt.add(System.nanoTime());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        throttled.start();
+        // Let tenant-a book its second send, held back ~500 ms by its own bucket
+        Thread.sleep(20);
+        for (int i = 0; i < 4; i++) {
+            // No tenant id: only the channel limit applies
+            limiter.acquire("sms", null, 1);
+            sentAt.add(System.nanoTime());
+        }
+        throttled.join();
+
+        List<Long> sends = new ArrayList<>(sentAt);
+        Collections.sort(sends);
+        assertThat(sends).hasSize(6);
+        for (int i = 1; i < sends.size(); i++) {
+            // 100 ms apart, less scheduling jitter
+            assertThat((sends.get(i) - sends.get(i - 1)) / 1_000_000).isGreaterThanOrEqualTo(70);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.notification;
+
+import com.example.notification.config.CircuitBreakerProperties;
+import com.example.notification.resilience.CallTimeoutException;
+import com.example.notification.resilience.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private static CircuitBreakerProperties properties() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setOpenDurationMs(50);
+        properties.setHalfOpenProbes(1);
+        return properties;
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        CircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        assertThat(permit).isNotNull();
+        assertThatThrownBy(() -> breaker.execute(permit, () -> {
+            throw new IllegalStateException("provider down");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldOpenAfterFailureRateAndCloseAfterSuccessfulProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("sms", properties());
+
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        Thread.sleep(60);
+        CircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        // Only one probe is allowed while half-open
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        assertThat(breaker.execute(probe, () -> "ok")).isEqualTo("ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("sms", properties());
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        Thread.sleep(60);
+
+        fail(breaker);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldDeriveTimeoutFromObservedLatency() throws Exception {
+        CircuitBreakerProperties properties = properties();
+        properties.getTimeout().setMinSamples(5);
+        properties.getTimeout().setMinMs(20);
+        properties.getTimeout().setMultiplier(2.0);
+        CircuitBreaker breaker = new CircuitBreaker("push", properties);
+        assertThat(breaker.timeoutNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10000));
+
+        for (int i = 0; i < 5; i++) {
+            breaker.execute(breaker.tryAcquirePermission(), () -> "fast");
+        }
+        assertThat(breaker.timeoutNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThatThrownBy(() -> breaker.execute(breaker.tryAcquirePermission(), () -> {
+            Thread.sleep(1_000);
+            return "slow";
+        })).isInstanceOf(CallTimeoutException.class);
+    }
+
+    @Test
+    void shouldWidenTheTimeoutWhenTheProviderSlowsDown() throws Exception {
+        CircuitBreakerProperties properties = properties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(10);
+        properties.getTimeout().setMinSamples(5);
+        properties.getTimeout().setMinMs(20);
+        properties.getTimeout().setMultiplier(2.0);
+        CircuitBreaker breaker = new CircuitBreaker("push", properties);
+        for (int i = 0; i < 5; i++) {
+            breaker.execute(breaker.tryAcquirePermission(), () -> "fast");
+        }
+
+        // Calls now take 60 ms: each timeout is recorded at its limit, doubling the next one
+        int timeouts = 0;
+        while (true) {
+            try {
+                breaker.execute(breaker.tryAcquirePermission(), () -> {
+                    Thread.sleep(60);
+                    return "slow";
+                });
+                break;
+            } catch (CallTimeoutException e) {
+                timeouts++;
+                assertThat(timeouts).isLessThan(4);
+            }
+        }
+        assertThat(breaker.timeoutNanos()).isGreaterThan(TimeUnit.MILLISECONDS.toNanos(60));
+    }
+
+    @Test
+    void shouldNotCountCallsAdmittedBeforeOpeningAsProbes() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("sms", properties());
+        CircuitBreaker.Permit admittedWhileClosed = breaker.tryAcquirePermission();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker);
+        }
+        Thread.sleep(60);
+        CircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+
+        // Finishing during HALF_OPEN, the old call must neither close the breaker nor free the probe slot
+        breaker.execute(admittedWhileClosed, () -> "late");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.execute(probe, () -> "ok");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
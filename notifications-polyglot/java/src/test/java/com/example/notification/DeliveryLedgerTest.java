@@ -0,0 +1,80 @@
+package com.example.notification;
+
+import com.example.notification.config.WorkerProperties;
+import com.example.notification.entity.DeliveredUnit;
+import com.example.notification.repository.DeliveredUnitRepository;
+import com.example.notification.worker.DeliveryLedger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeliveryLedgerTest {
+
+    private final DeliveredUnitRepository repository = mock(DeliveredUnitRepository.class);
+    private final DeliveryLedger ledger = new DeliveryLedger(repository, new WorkerProperties());
+
+    private static ConsumerRecord<String, String> record(int partition, long offset) {
+        return new ConsumerRecord<>("notifications", partition, offset, "key", "value");
+    }
+
+    @Test
+    void shouldSkipUnitsDeliveredFromRedeliveredRecord() {
+        ConsumerRecord<String, String> record = record(0, 5);
+        ledger.advance(List.of(record));
+        ledger.markDelivered(record, DeliveryLedger.unitKey("n1", "email"));
+
+        ledger.advance(List.of(record));
+
+        assertThat(ledger.isDelivered(record, DeliveryLedger.unitKey("n1", "email"))).isTrue();
+        assertThat(ledger.isDelivered(record, DeliveryLedger.unitKey("n1", "sms"))).isFalse();
+        assertThat(ledger.isDelivered(record(1, 5), DeliveryLedger.unitKey("n1", "email"))).isFalse();
+    }
+
+    @Test
+    void shouldForgetUnitsBelowWatermark() {
+        ledger.markDelivered(record(0, 5), DeliveryLedger.unitKey("n1", "email"));
+        ledger.markDelivered(record(0, 6), DeliveryLedger.unitKey("n2", "email"));
+
+        ledger.advance(List.of(record(0, 6)));
+
+        assertThat(ledger.isDelivered(record(0, 6), DeliveryLedger.unitKey("n1", "email"))).isFalse();
+        assertThat(ledger.isDelivered(record(0, 6), DeliveryLedger.unitKey("n2", "email"))).isTrue();
+    }
+
+    @Test
+    void shouldReloadCheckpointedUnitsOnAssignment() {
+        when(repository.findUnits("notifications", 2, 40L)).thenReturn(Map.of(DeliveryLedger.unitKey("n1", "sms#3"), 41L));
+
+        ledger.assigned(Map.of(new TopicPartition("notifications", 2), 40L));
+
+        verify(repository).deleteBelow("notifications", 2, 40L);
+        assertThat(ledger.isDelivered(record(2, 41), DeliveryLedger.unitKey("n1", "sms#3"))).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCheckpointMarkedUnitsOnce() {
+        ledger.markDelivered(record(0, 5), DeliveryLedger.unitKey("n1", "email"));
+        ledger.markDelivered(record(0, 5), DeliveryLedger.unitKey("n1", "sms"));
+
+        ledger.checkpoint();
+        ledger.checkpoint();
+
+        ArgumentCaptor<Collection<DeliveredUnit>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(2)).saveUnits(saved.capture());
+        assertThat(saved.getAllValues().get(0)).extracting(unit -> unit.getId().getUnitKey())
+                .containsExactly("n1/email", "n1/sms");
+        assertThat(saved.getAllValues().get(1)).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.notification;
+
+import com.example.notification.dto.DeliveryReport;
+import com.example.notification.dto.FailedRecipientsPage;
+import com.example.notification.entity.RecipientOutcome;
+import com.example.notification.repository.RecipientBitmaps;
+import com.example.notification.repository.RecipientOutcomeRepository;
+import com.example.notification.service.DeliveryReportService;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeliveryReportServiceTest {
+
+    private final RecipientOutcomeRepository repository = mock(RecipientOutcomeRepository.class);
+    private final DeliveryReportService service = new DeliveryReportService(repository);
+
+    private static RecipientOutcome outcome(String channel, RoaringBitmap succeeded, RoaringBitmap failed) {
+        return new RecipientOutcome(new RecipientOutcome.Key("n1", channel),
+                RecipientBitmaps.toBytes(succeeded), RecipientBitmaps.toBytes(failed), null);
+    }
+
+    @Test
+    void shouldCountSucceededFailedAndPendingPerChannel() {
+        RoaringBitmap succeeded = RoaringBitmap.bitmapOf();
+        succeeded.add(0L, 9_700L);
+        when(repository.recipientCount("n1")).thenReturn(OptionalInt.of(10_000));
+        when(repository.findByIdNotificationId("n1")).thenReturn(List.of(
+                outcome("email", succeeded, RoaringBitmap.bitmapOf(9_700, 9_701, 9_702))));
+
+        DeliveryReport report = service.getReport("n1").orElseThrow();
+
+        DeliveryReport.ChannelDelivery email = report.getChannels().get("email");
+        assertThat(email.getSucceeded()).isEqualTo(9_700);
+        assertThat(email.getFailed()).isEqualTo(3);
+        assertThat(email.getPending()).isEqualTo(297);
+    }
+
+    @Test
+    void shouldPageFailuresInIndexOrder() {
+        RoaringBitmap failed = RoaringBitmap.bitmapOf(3, 8, 15, 42, 99);
+        when(repository.findById(new RecipientOutcome.Key("n1", "sms")))
+                .thenReturn(Optional.of(outcome("sms", new RoaringBitmap(), failed)));
+        when(repository.findRecipientIds("n1", new int[]{15, 42})).thenReturn(Map.of(15, "u15", 42, "u42"));
+
+        FailedRecipientsPage page = service.getFailures("n1", "sms", 1, 2).orElseThrow();
+
+        assertThat(page.getTotalFailed()).isEqualTo(5);
+        assertThat(page.getRecipients()).extracting(FailedRecipientsPage.FailedRecipient::getRecipientId)
+                .containsExactly("u15", "u42");
+    }
+
+    @Test
+    void shouldReturnEmptyPagePastTheEnd() {
+        when(repository.findById(new RecipientOutcome.Key("n1", "sms")))
+                .thenReturn(Optional.of(outcome("sms", new RoaringBitmap(), RoaringBitmap.bitmapOf(1))));
+
+        assertThat(service.getFailures("n1", "sms", 3, 10).orElseThrow().getRecipients()).isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.notification;
+
+import com.example.notification.adapter.EmailAdapter;
+import com.example.notification.adapter.SendResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailAdapterTest {
+
+    private final Map<String, String> delivered = new HashMap<>();
+    private final List<Integer> callSizes = new ArrayList<>();
+
+    private final EmailAdapter adapter = new EmailAdapter(2) {
+        @Override
+        protected void sendChunk(List<String> recipientIds, List<String> messages) {
+            callSizes.add(recipientIds.size());
+            for (int i = 0; i < recipientIds.size(); i++) {
+                delivered.put(recipientIds.get(i), messages.get(i));
+            }
+        }
+    };
+
+    @Test
+    void shouldSendEachRecipientItsOwnText() {
+        List<String> recipientIds = List.of("u0", "u1", "u2");
+        List<String> messages = List.of("Hi Ann", "Hi Bob", "Hi Cy");
+
+        List<SendResult> results = adapter.sendPersonalizedBatch(recipientIds, messages);
+
+        assertThat(results).extracting(SendResult::recipientId).containsExactlyElementsOf(recipientIds);
+        assertThat(results).allMatch(SendResult::success);
+        for (int i = 0; i < recipientIds.size(); i++) {
+            assertThat(delivered).containsEntry(recipientIds.get(i), messages.get(i));
+        }
+        // Split by max batch size only, not by distinct text
+        assertThat(callSizes).containsExactly(2, 1);
+    }
+}
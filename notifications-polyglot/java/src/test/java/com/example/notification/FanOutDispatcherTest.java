@@ -0,0 +1,336 @@
+package com.example.notification;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.SendResult;
+import com.example.notification.config.CircuitBreakerProperties;
+import com.example.notification.config.PriorityProperties;
+import com.example.notification.config.RateLimitProperties;
+import com.example.notification.config.WorkerProperties;
+import com.example.notification.resilience.ChannelBulkheads;
+import com.example.notification.resilience.ChannelRateLimiter;
+import com.example.notification.resilience.CircuitBreakers;
+import com.example.notification.worker.ChannelOutcome;
+import com.example.notification.worker.FanOutDispatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FanOutDispatcherTest {
+
+    private static FanOutDispatcher dispatcher(WorkerProperties properties) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new FanOutDispatcher(new ChannelBulkheads(properties, new PriorityProperties(), registry),
+                new ChannelRateLimiter(new RateLimitProperties(), registry),
+                new CircuitBreakers(new CircuitBreakerProperties(), registry));
+    }
+
+    @Test
+    void shouldCapInFlightSendsPerChannel() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.getFanOut().getChannelConcurrency().put("sms", 2);
+        FanOutDispatcher dispatcher = dispatcher(properties);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ChannelAdapter sms = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("sms");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+            }
+        };
+
+        Map<String, ChannelOutcome> outcomes = dispatcher.dispatch(
+                Map.of("sms", sms), List.of("u1", "u2", "u3", "u4", "u5", "u6"), "Hello");
+
+        assertThat(outcomes.get("sms").getSucceeded()).isEqualTo(6);
+        assertThat(outcomes.get("sms").isSuccessful()).isTrue();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldReportFailedRecipientsWithoutAbortingOtherChannels() {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        ChannelAdapter failing = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("email", "push");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                if ("bad".equals(recipientId)) {
+                    throw new IllegalStateException("provider rejected " + recipientId);
+                }
+            }
+        };
+        Map<String, ChannelAdapter> adapters = new LinkedHashMap<>();
+        adapters.put("email", failing);
+        adapters.put("push", failing);
+
+        Map<String, ChannelOutcome> outcomes = dispatcher.dispatch(adapters, List.of("good", "bad"), "Hello");
+
+        assertThat(outcomes).containsOnlyKeys("email", "push");
+        assertThat(outcomes.get("email").isSuccessful()).isFalse();
+        assertThat(outcomes.get("email").getSucceeded()).isEqualTo(1);
+        assertThat(outcomes.get("push").getFailed()).isEqualTo(1);
+        assertThat(outcomes.get("push").getRetryRecipients()).containsExactly(new ChannelOutcome.Recipient(1, "bad"));
+        assertThat(outcomes.get("push").getSucceededIndexes().toArray()).containsExactly(0);
+        assertThat(outcomes.get("push").getFailedIndexes().toArray()).containsExactly(1);
+    }
+
+    @Test
+    void shouldSplitRecipientsIntoProviderBatches() {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        ChannelAdapter push = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("push");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 2;
+            }
+
+            @Override
+            public List<SendResult> sendBatch(List<String> recipientIds, String message) {
+                batchSizes.add(recipientIds.size());
+                return recipientIds.stream().map(SendResult::success).toList();
+            }
+        };
+
+        Map<String, ChannelOutcome> outcomes = dispatcher.dispatch(
+                Map.of("push", push), List.of("d1", "d2", "d3", "d4", "d5"), "Hello");
+
+        assertThat(outcomes.get("push").getSucceeded()).isEqualTo(5);
+        assertThat(batchSizes).containsExactlyInAnyOrder(2, 2, 1);
+    }
+
+    @Test
+    void shouldBatchPersonalizedMessagesByRenderedText() {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        Map<String, List<String>> recipientsByMessage = new ConcurrentHashMap<>();
+        ChannelAdapter push = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("push");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 10;
+            }
+
+            @Override
+            public List<SendResult> sendBatch(List<String> recipientIds, String message) {
+                recipientsByMessage.put(message, recipientIds);
+                return recipientIds.stream().map(SendResult::success).toList();
+            }
+        };
+
+        FanOutDispatcher.DispatchJob job = new FanOutDispatcher.DispatchJob("n1", 0, 1, null, null, Map.of("push", push),
+                List.of("d1", "d2", "d3"), null, null, List.of("Hi Ann", "Hi Bob", "Hi Ann"));
+        Map<String, Map<String, ChannelOutcome>> outcomes = dispatcher.dispatchAll(List.of(job), outcome -> {
+        });
+
+        assertThat(outcomes.get("n1").get("push").getSucceeded()).isEqualTo(3);
+        assertThat(recipientsByMessage).containsOnlyKeys("Hi Ann", "Hi Bob");
+        assertThat(recipientsByMessage.get("Hi Ann")).containsExactly("d1", "d3");
+        assertThat(job.messageByIndex().apply(1)).isEqualTo("Hi Bob");
+    }
+
+    @Test
+    void shouldSendDistinctPersonalizedMessagesInOneProviderBatch() {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        ChannelAdapter email = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("email");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 10;
+            }
+
+            @Override
+            public List<SendResult> sendPersonalizedBatch(List<String> recipientIds, List<String> messages) {
+                calls.add(messages);
+                return recipientIds.stream().map(SendResult::success).toList();
+            }
+        };
+
+        FanOutDispatcher.DispatchJob job = new FanOutDispatcher.DispatchJob("n1", 0, 1, null, null, Map.of("email", email),
+                List.of("u1", "u2", "u3"), null, null, List.of("Hi Ann", "Hi Bob", "Hi Cy"));
+        Map<String, Map<String, ChannelOutcome>> outcomes = dispatcher.dispatchAll(List.of(job), outcome -> {
+        });
+
+        assertThat(outcomes.get("n1").get("email").getSucceeded()).isEqualTo(3);
+        assertThat(calls).containsExactly(List.of("Hi Ann", "Hi Bob", "Hi Cy"));
+    }
+
+    @Test
+    void shouldMergeRecordsSharingALaneIntoOneProviderBatch() {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        ChannelAdapter email = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("email");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int maxBatchSize() {
+                return 10;
+            }
+
+            @Override
+            public List<SendResult> sendBatch(List<String> recipientIds, String message) {
+                batches.add(recipientIds);
+                return recipientIds.stream().map(SendResult::success).toList();
+            }
+        };
+
+        Map<String, Map<String, ChannelOutcome>> outcomes = dispatcher.dispatchAll(List.of(
+                new FanOutDispatcher.DispatchJob("n1", null, Map.of("email", email), List.of("a1", "a2"), "Hello"),
+                new FanOutDispatcher.DispatchJob("n2", null, Map.of("email", email), List.of("b1", "b2", "b3"), "Hello")),
+                outcome -> {
+                });
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder("a1", "a2", "b1", "b2", "b3");
+        assertThat(outcomes.get("n1").get("email").getSucceeded()).isEqualTo(2);
+        assertThat(outcomes.get("n2").get("email").getSucceeded()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldFeedALargeLaneToTheBulkheadWithoutOverflowingItsQueue() {
+        WorkerProperties properties = new WorkerProperties();
+        properties.getFanOut().getChannelConcurrency().put("sms", 2);
+        properties.getBulkhead().getChannelMaxQueueDepth().put("sms", 1);
+        FanOutDispatcher dispatcher = dispatcher(properties);
+
+        ChannelAdapter sms = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("sms");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        List<String> recipients = IntStream.range(0, 40).mapToObj(i -> "u" + i).toList();
+
+        Map<String, ChannelOutcome> outcomes = dispatcher.dispatch(Map.of("sms", sms), recipients, "Hello");
+
+        // Forty batches against two slots and a queue of one: none may be shed as deferred
+        assertThat(outcomes.get("sms").getSucceeded()).isEqualTo(40);
+        assertThat(outcomes.get("sms").getDeferred()).isZero();
+    }
+
+    @Test
+    void shouldReportEachChannelAsSoonAsItsLaneFinishes() throws InterruptedException {
+        FanOutDispatcher dispatcher = dispatcher(new WorkerProperties());
+
+        CountDownLatch emailReported = new CountDownLatch(1);
+        AtomicBoolean smsSawEmailReport = new AtomicBoolean();
+        ChannelAdapter email = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("email");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+            }
+        };
+        ChannelAdapter sms = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("sms");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+                try {
+                    smsSawEmailReport.set(emailReported.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        Map<String, ChannelAdapter> adapters = new LinkedHashMap<>();
+        adapters.put("email", email);
+        adapters.put("sms", sms);
+
+        List<String> reported = new CopyOnWriteArrayList<>();
+        dispatcher.dispatchAll(List.of(new FanOutDispatcher.DispatchJob("n1", null, adapters, List.of("u1"), "Hello")),
+                outcome -> {
+                    reported.add(outcome.getChannel());
+                    if ("email".equals(outcome.getChannel())) {
+                        emailReported.countDown();
+                    }
+                });
+
+        // The SMS send only returns once email was reported, so email cannot have waited for it
+        assertThat(smsSawEmailReport).isTrue();
+        assertThat(reported).containsExactly("email", "sms");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.notification;
+
+import com.example.notification.config.IdempotencyProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.exception.IdempotencyKeyMismatchException;
+import com.example.notification.repository.IdempotencyKeyRepository;
+import com.example.notification.service.IdempotencyService;
+import com.example.notification.service.NotificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final IdempotencyService service = new IdempotencyService(notificationService,
+            mock(IdempotencyKeyRepository.class), new IdempotencyProperties(), new ObjectMapper(), new SimpleMeterRegistry());
+
+    private static NotificationRequest request() {
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(List.of("email"));
+        request.setRecipientIds(List.of("user1"));
+        request.setMessage("Hello");
+        return request;
+    }
+
+    @Test
+    void shouldAnswerRepeatedKeyFromCache() {
+        when(notificationService.enqueueNotification(any(), anyString(), anyString()))
+                .thenReturn(new NotificationService.EnqueueResult("id-1", false));
+
+        NotificationService.EnqueueResult first = service.enqueue("key-1", request());
+        NotificationService.EnqueueResult second = service.enqueue("key-1", request());
+
+        assertThat(first).isEqualTo(new NotificationService.EnqueueResult("id-1", false));
+        assertThat(second).isEqualTo(new NotificationService.EnqueueResult("id-1", true));
+        verify(notificationService, times(1)).enqueueNotification(any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldDelegateDistinctKeys() {
+        when(notificationService.enqueueNotification(any(), anyString(), anyString()))
+                .thenReturn(new NotificationService.EnqueueResult("id-1", false))
+                .thenReturn(new NotificationService.EnqueueResult("id-2", false));
+
+        assertThat(service.enqueue("key-1", request()).notificationId()).isEqualTo("id-1");
+        assertThat(service.enqueue("key-2", request()).notificationId()).isEqualTo("id-2");
+    }
+
+    @Test
+    void shouldScopeKeysPerTenant() {
+        NotificationRequest tenantA = request();
+        tenantA.setTenantId("tenant-a");
+        NotificationRequest tenantB = request();
+        tenantB.setTenantId("tenant-b");
+        when(notificationService.enqueueNotification(any(), anyString(), anyString()))
+                .thenReturn(new NotificationService.EnqueueResult("id-a", false))
+                .thenReturn(new NotificationService.EnqueueResult("id-b", false));
+
+        assertThat(service.enqueue("order-42", tenantA).notificationId()).isEqualTo("id-a");
+        assertThat(service.enqueue("order-42", tenantB).notificationId()).isEqualTo("id-b");
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(notificationService, times(2)).enqueueNotification(any(), keys.capture(), anyString());
+        assertThat(keys.getAllValues().get(0)).isNotEqualTo(keys.getAllValues().get(1));
+    }
+
+    @Test
+    void shouldRejectKeyReusedForADifferentRequest() {
+        when(notificationService.enqueueNotification(any(), anyString(), anyString()))
+                .thenReturn(new NotificationService.EnqueueResult("id-1", false));
+        service.enqueue("key-1", request());
+
+        NotificationRequest changed = request();
+        changed.setMessage("Different");
+
+        assertThatThrownBy(() -> service.enqueue("key-1", changed)).isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+}
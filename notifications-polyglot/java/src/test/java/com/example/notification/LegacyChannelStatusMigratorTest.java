@@ -0,0 +1,52 @@
+package com.example.notification;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.repository.LegacyChannelStatusMigrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LegacyChannelStatusMigratorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private LegacyChannelStatusMigrator migrator(int batchSize) {
+        StatusProperties properties = new StatusProperties();
+        properties.getLegacyMigration().setBatchSize(batchSize);
+        return new LegacyChannelStatusMigrator(jdbcTemplate, properties);
+    }
+
+    @Test
+    void shouldBackfillInBatchesUntilNothingIsLeft() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), eq(50))).thenReturn(50, 50, 7, 0);
+
+        migrator(50).start();
+
+        verify(jdbcTemplate, times(4)).update(anyString(), eq(50));
+    }
+
+    @Test
+    void shouldSkipWhenLegacyTableIsGone() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        migrator(50).start();
+
+        verify(jdbcTemplate, never()).update(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldStartBeforeTheListenerContainers() {
+        assertThat(migrator(50).getPhase()).isLessThan(AbstractMessageListenerContainer.DEFAULT_PHASE);
+    }
+}
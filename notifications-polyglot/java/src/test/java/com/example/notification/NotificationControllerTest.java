@@ -2,6 +2,8 @@ package com.example.notification;
 
 import com.example.notification.controller.NotificationController;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.service.BulkNotificationService;
+import com.example.notification.service.IdempotencyService;
 import com.example.notification.service.NotificationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +15,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -27,6 +31,20 @@ class NotificationControllerTest {
     @MockBean
     private NotificationService notificationService;
 
+    @MockBean
+    private BulkNotificationService bulkNotificationService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    private static final String REQUEST_JSON = """
+            {
+                "channels": ["email"],
+                "recipientIds": ["user1"],
+                "message": "Hello"
+            }
+            """;
+
     @Test
     void shouldEnqueueNotification() throws Exception {
         when(notificationService.enqueueNotification(any())).thenReturn("test-id");
@@ -46,4 +64,46 @@ class NotificationControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.notification_id").value("test-id"));
     }
+
+    @Test
+    void shouldRejectUnknownPriorityAsBadRequest() throws Exception {
+        String json = """
+            {
+                "channels": ["sms"],
+                "recipientIds": ["user1"],
+                "message": "Your code is 123456",
+                "priority": "urgent"
+            }
+            """;
+
+        mockMvc.perform(post("/notify")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void shouldReplayIdempotentRequest() throws Exception {
+        when(idempotencyService.enqueue(eq("order-42"), any()))
+                .thenReturn(new NotificationService.EnqueueResult("original-id", true));
+
+        mockMvc.perform(post("/notify")
+                .header("Idempotency-Key", "order-42")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.data.notification_id").value("original-id"));
+    }
+
+    @Test
+    void shouldRejectOversizedIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/notify")
+                .header("Idempotency-Key", "k".repeat(256))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REQUEST_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
 }
@@ -0,0 +1,119 @@
+package com.example.notification;
+
+import com.example.notification.config.ScheduleProperties;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.entity.ScheduledNotification;
+import com.example.notification.repository.ScheduledNotificationRepository;
+import com.example.notification.service.NotificationScheduler;
+import com.example.notification.service.NotificationStatusService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationSchedulerTest {
+
+    private final ScheduledNotificationRepository repository = mock(ScheduledNotificationRepository.class);
+    private final NotificationStatusService statusService = mock(NotificationStatusService.class);
+    private final ScheduleProperties properties = new ScheduleProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationScheduler scheduler = new NotificationScheduler(repository, statusService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper(), properties, meterRegistry);
+
+    private static ScheduledNotification row(String id, Instant dueAt) {
+        return new ScheduledNotification(id, dueAt, null);
+    }
+
+    private double loaded() {
+        return meterRegistry.get("notification.schedule.loaded").gauge().value();
+    }
+
+    @Test
+    void shouldFireClaimedSchedulesOnceDue() {
+        when(repository.claimDue(any(), anyLong(), anyInt())).thenReturn(List.of(row("n1", Instant.now().minusMillis(1))));
+        when(repository.moveToOutbox(List.of("n1"))).thenReturn(List.of("n1"));
+
+        scheduler.load();
+        scheduler.tick();
+
+        verify(repository).claimDue(any(), eq(properties.getOverdueGrace().toMillis()), eq(properties.getLoadBatchSize()));
+        verify(repository).moveToOutbox(List.of("n1"));
+        verify(statusService).transition(List.of("n1"), NotificationScheduler.SCHEDULED, "ENQUEUED");
+        assertThat(loaded()).isZero();
+    }
+
+    @Test
+    void shouldClaimSchedulesInsertedWithinLoadedWindow() {
+        when(repository.claimDue(any(), anyLong(), anyInt())).thenReturn(List.of());
+        scheduler.load();
+        Instant soon = Instant.now().plusSeconds(60);
+        Instant later = Instant.now().plus(properties.getLookahead()).plus(Duration.ofMinutes(1));
+
+        scheduler.schedule(List.of(
+                new NotificationScheduler.Schedule("n1", soon, List.of(new OutboxEvent("notifications", "n1", null, "{}"))),
+                new NotificationScheduler.Schedule("n2", later, List.of(new OutboxEvent("notifications", "n2", null, "{}")))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ScheduledNotification>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).insertSchedules(rows.capture());
+        assertThat(rows.getValue().get(0).getClaimedUntil()).isEqualTo(soon.plus(properties.getOverdueGrace()));
+        assertThat(rows.getValue().get(1).getClaimedUntil()).isNull();
+        assertThat(loaded()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotFireScheduleCancelledBeforeTick() {
+        when(repository.claimDue(any(), anyLong(), anyInt())).thenReturn(List.of(row("n1", Instant.now().minusMillis(1))));
+        when(repository.deleteSchedule("n1")).thenReturn(1);
+        scheduler.load();
+
+        assertThat(scheduler.cancel("n1")).isTrue();
+        scheduler.tick();
+
+        verify(statusService).transition(List.of("n1"), NotificationScheduler.SCHEDULED, NotificationScheduler.CANCELLED);
+        verify(repository, never()).moveToOutbox(anyList());
+    }
+
+    @Test
+    void shouldSkipScheduleCancelledOnAnotherNodeWhileFiring() {
+        when(repository.claimDue(any(), anyLong(), anyInt())).thenReturn(List.of(row("n1", Instant.now().minusMillis(1))));
+        // The cancel deleted the row first, so moving it finds nothing
+        when(repository.moveToOutbox(List.of("n1"))).thenReturn(List.of());
+        scheduler.load();
+
+        scheduler.tick();
+
+        verify(statusService, never()).transition(eq(List.of("n1")), any(), any());
+    }
+
+    @Test
+    void shouldReloadOverdueSchedulesClaimedByAnotherNode() {
+        when(repository.claimDue(any(), anyLong(), anyInt())).thenReturn(List.of());
+        Instant overdue = Instant.now().minus(properties.getOverdueGrace()).minusSeconds(1);
+        when(repository.findDue(eq(Instant.EPOCH), eq(""), any(), anyInt())).thenReturn(List.of(row("n2", overdue)));
+        when(repository.moveToOutbox(List.of("n2"))).thenReturn(List.of("n2"));
+
+        scheduler.load();
+        scheduler.tick();
+
+        verify(repository).moveToOutbox(List.of("n2"));
+        verify(statusService).transition(List.of("n2"), NotificationScheduler.SCHEDULED, "ENQUEUED");
+    }
+}
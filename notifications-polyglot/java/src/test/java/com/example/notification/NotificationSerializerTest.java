@@ -0,0 +1,136 @@
+package com.example.notification;
+
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.Priority;
+import com.example.notification.dto.RetryRequest;
+import com.example.notification.kafka.NotificationDeserializer;
+import com.example.notification.kafka.NotificationRequestCodec;
+import com.example.notification.kafka.NotificationSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationSerializerTest {
+
+    private static NotificationSerializer serializer(String format) {
+        NotificationSerializer serializer = new NotificationSerializer();
+        serializer.configure(Map.of(NotificationSerializer.FORMAT_CONFIG, format), false);
+        return serializer;
+    }
+
+    private static NotificationDeserializer deserializer() {
+        NotificationDeserializer deserializer = new NotificationDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        return deserializer;
+    }
+
+    private static NotificationRequest request() {
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(List.of("email", "sms", "fax"));
+        request.setRecipientIds(IntStream.range(0, 200).mapToObj(i -> "user-" + (100_000 + i)).toList());
+        request.setMessage("Your order has shipped");
+        request.setTenantId("tenant-a");
+        request.setPriority(Priority.HIGH);
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("orderId", "o-1");
+        metadata.put("count", 3);
+        metadata.put("total", 12.5);
+        metadata.put("epoch", 1_760_000_000_000L);
+        metadata.put("huge", new BigInteger("123456789012345678901234567890"));
+        metadata.put("gift", true);
+        metadata.put("note", null);
+        metadata.put("items", List.of(Map.of("sku", "a"), -7));
+        request.setMetadata(metadata);
+        return request;
+    }
+
+    @Test
+    void shouldRoundTripBinaryRecordsSmallerThanJson() {
+        NotificationRequest request = request();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] binary = serializer("binary").serialize("notifications", headers, request);
+        byte[] json = serializer("json").serialize("notifications", new RecordHeaders(), request);
+
+        assertThat(NotificationRequestCodec.isBinary(binary)).isTrue();
+        assertThat(headers.toArray()).isEmpty();
+        assertThat(binary.length).isLessThan(json.length / 3);
+        assertThat(deserializer().deserialize("notifications", headers, binary)).isEqualTo(request);
+    }
+
+    @Test
+    void shouldRoundTripNullsTemplatesAndNonAsciiIds() {
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientIds(Arrays.asList("\u4f7f\u7528\u8005-1", "\u4f7f\u7528\u8005-2", null, "\uD83D\uDE00a", "\uD83D\uDE01b", ""));
+        request.setTemplateId("welcome");
+        request.setRecipientAttributes(Map.of("\u4f7f\u7528\u8005-1", Map.of("name", "Ann")));
+
+        NotificationRequest decoded = NotificationRequestCodec.decode(NotificationRequestCodec.encode(request));
+
+        assertThat(decoded).isEqualTo(request);
+        assertThat(decoded.getChannels()).isNull();
+        assertThat(decoded.getPriority()).isNull();
+    }
+
+    @Test
+    void shouldFallBackToJsonForOtherPayloads() {
+        NotificationSerializer serializer = serializer("binary");
+        NotificationRequest request = request();
+        UUID traceId = UUID.randomUUID();
+        request.setMetadata(Map.of("traceId", traceId));
+        RetryRequest retry = new RetryRequest();
+        retry.setNotificationId("n1");
+        retry.setRecipientIds(List.of("u1"));
+
+        RecordHeaders requestHeaders = new RecordHeaders();
+        byte[] fallback = serializer.serialize("notifications", requestHeaders, request);
+        RecordHeaders retryHeaders = new RecordHeaders();
+        byte[] json = serializer.serialize("notification-retry-1m", retryHeaders, retry);
+
+        assertThat(NotificationRequestCodec.isBinary(fallback)).isFalse();
+        assertThat(NotificationRequestCodec.isBinary(json)).isFalse();
+        NotificationRequest decoded = (NotificationRequest) deserializer().deserialize("notifications", requestHeaders, fallback);
+        assertThat(decoded.getMetadata()).containsEntry("traceId", traceId.toString());
+        assertThat(deserializer().deserialize("notification-retry-1m", retryHeaders, json)).isEqualTo(retry);
+    }
+
+    @Test
+    void shouldWriteJsonUnlessBinaryIsConfigured() {
+        NotificationSerializer serializer = new NotificationSerializer();
+        serializer.configure(Map.of(), false);
+
+        assertThat(NotificationRequestCodec.isBinary(serializer.serialize("notifications", new RecordHeaders(), request()))).isFalse();
+    }
+
+    @Test
+    void shouldRejectCountsLargerThanTheRecordBeforeAllocating() {
+        byte[] header = NotificationRequestCodec.encode(new NotificationRequest());
+        byte[] maxVarint = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        // No channels, then Integer.MAX_VALUE - 1 recipient ids
+        byte[] recipients = {header[0], header[1], 0, maxVarint[0], maxVarint[1], maxVarint[2], maxVarint[3], maxVarint[4]};
+        // No channels, recipients, message, template or attributes, then a metadata list of Integer.MAX_VALUE values
+        byte[] metadata = {header[0], header[1], 0, 0, 0, 0, 0, 7, maxVarint[0], maxVarint[1], maxVarint[2], maxVarint[3], maxVarint[4]};
+
+        assertThatThrownBy(() -> NotificationRequestCodec.decode(recipients)).hasMessageContaining("Truncated");
+        assertThatThrownBy(() -> NotificationRequestCodec.decode(metadata)).hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void shouldRejectTruncatedRecords() {
+        byte[] binary = NotificationRequestCodec.encode(request());
+
+        assertThatThrownBy(() -> deserializer().deserialize("notifications", new RecordHeaders(),
+                Arrays.copyOf(binary, binary.length - 5))).hasMessageContaining("Cannot decode");
+    }
+}
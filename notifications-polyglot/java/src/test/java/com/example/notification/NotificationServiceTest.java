@@ -0,0 +1,243 @@
+package com.example.notification;
+
+import com.example.notification.config.EnqueueProperties;
+import com.example.notification.config.IdempotencyProperties;
+import com.example.notification.config.PriorityProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.Priority;
+import com.example.notification.entity.IdempotencyKey;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.exception.IdempotencyKeyMismatchException;
+import com.example.notification.exception.InvalidTemplateException;
+import com.example.notification.repository.IdempotencyKeyRepository;
+import com.example.notification.repository.OutboxRepository;
+import com.example.notification.service.CompiledTemplate;
+import com.example.notification.service.NotificationScheduler;
+import com.example.notification.service.NotificationService;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.TemplateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private final NotificationStatusService statusService = mock(NotificationStatusService.class);
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    private final IdempotencyKeyRepository idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+    private final NotificationScheduler scheduler = mock(NotificationScheduler.class);
+    private final TemplateService templateService = mock(TemplateService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NotificationService service(int chunkSize) {
+        EnqueueProperties properties = new EnqueueProperties();
+        properties.setChunkSize(chunkSize);
+        return new NotificationService(statusService, outboxRepository, idempotencyKeyRepository, objectMapper,
+                properties, new IdempotencyProperties(), new PriorityProperties(), scheduler, templateService);
+    }
+
+    private static NotificationRequest request(int recipients) {
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(List.of("email", "sms"));
+        request.setRecipientIds(IntStream.range(0, recipients).mapToObj(i -> "user" + i).toList());
+        request.setMessage("Hello");
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NotificationStatusService.NewNotification created() {
+        ArgumentCaptor<List<NotificationStatusService.NewNotification>> created = ArgumentCaptor.forClass(List.class);
+        verify(statusService).createInitialStatuses(created.capture());
+        return created.getValue().get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> appended() {
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).append(events.capture());
+        return events.getValue();
+    }
+
+    @Test
+    void shouldWriteSmallRequestAsOneOutboxEvent() {
+        String id = service(1000).enqueueNotification(request(3));
+
+        assertThat(created().chunkCount()).isEqualTo(1);
+        List<OutboxEvent> events = appended();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getTopic()).isEqualTo("notifications");
+        assertThat(events.get(0).getRecordKey()).isEqualTo(id);
+        assertThat(events.get(0).getHeaders()).isEmpty();
+    }
+
+    @Test
+    void shouldEnqueueManyRequestsInOneBatch() {
+        List<String> ids = service(1000).enqueueNotifications(List.of(request(1), request(2), request(3)));
+
+        assertThat(ids).hasSize(3).doesNotHaveDuplicates();
+        assertThat(appended()).extracting(OutboxEvent::getRecordKey).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void shouldSplitRecipientsIntoKeyedChunks() throws Exception {
+        String id = service(2).enqueueNotification(request(5));
+
+        assertThat(created().chunkCount()).isEqualTo(3);
+        List<OutboxEvent> events = appended();
+        assertThat(events).extracting(OutboxEvent::getRecordKey).containsExactly(id + ":0", id + ":1", id + ":2");
+        assertThat(objectMapper.readValue(events.get(2).getPayload(), NotificationRequest.class).getRecipientIds())
+                .containsExactly("user4");
+        assertThat(events.get(1).getHeaders())
+                .containsEntry(NotificationService.NOTIFICATION_ID_HEADER, id)
+                .containsEntry(NotificationService.RECIPIENT_OFFSET_HEADER, "2")
+                .containsEntry(NotificationService.CHUNK_COUNT_HEADER, "3");
+    }
+
+    @Test
+    void shouldGrowChunksPastMaxChunks() {
+        EnqueueProperties properties = new EnqueueProperties();
+        properties.setChunkSize(2);
+        properties.setMaxChunks(2);
+        NotificationService service = new NotificationService(statusService, outboxRepository, idempotencyKeyRepository,
+                objectMapper, properties, new IdempotencyProperties(), new PriorityProperties(), scheduler, templateService);
+
+        service.enqueueNotification(request(5));
+
+        assertThat(created().chunkCount()).isEqualTo(2);
+        assertThat(appended()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotGrowChunksPastMaxChunkSize() throws Exception {
+        EnqueueProperties properties = new EnqueueProperties();
+        properties.setChunkSize(2);
+        properties.setMaxChunks(2);
+        properties.setMaxChunkSize(3);
+        NotificationService service = new NotificationService(statusService, outboxRepository, idempotencyKeyRepository,
+                objectMapper, properties, new IdempotencyProperties(), new PriorityProperties(), scheduler, templateService);
+
+        service.enqueueNotification(request(10));
+
+        assertThat(created().chunkCount()).isEqualTo(4);
+        List<OutboxEvent> events = appended();
+        assertThat(events).hasSize(4);
+        assertThat(objectMapper.readValue(events.get(0).getPayload(), NotificationRequest.class).getRecipientIds())
+                .hasSize(3);
+    }
+
+    @Test
+    void shouldEnqueueWhenIdempotencyKeyIsClaimed() {
+        when(idempotencyKeyRepository.claim(eq("key-1"), anyString(), eq("hash-1"), anyLong())).thenReturn(1);
+
+        NotificationService.EnqueueResult result = service(1000).enqueueNotification(request(1), "key-1", "hash-1");
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(appended()).extracting(OutboxEvent::getRecordKey).containsExactly(result.notificationId());
+    }
+
+    @Test
+    void shouldReturnBoundNotificationWhenIdempotencyKeyIsTaken() {
+        when(idempotencyKeyRepository.claim(eq("key-1"), anyString(), eq("hash-1"), anyLong())).thenReturn(0);
+        when(idempotencyKeyRepository.findLive(eq("key-1"), anyLong()))
+                .thenReturn(Optional.of(new IdempotencyKey("key-1", "original-id", "hash-1", null)));
+
+        NotificationService.EnqueueResult result = service(1000).enqueueNotification(request(1), "key-1", "hash-1");
+
+        assertThat(result).isEqualTo(new NotificationService.EnqueueResult("original-id", true));
+        verify(outboxRepository, never()).append(any());
+        verify(statusService, never()).createInitialStatuses(any());
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyBoundToADifferentRequest() {
+        when(idempotencyKeyRepository.claim(eq("key-1"), anyString(), eq("hash-2"), anyLong())).thenReturn(0);
+        when(idempotencyKeyRepository.findLive(eq("key-1"), anyLong()))
+                .thenReturn(Optional.of(new IdempotencyKey("key-1", "original-id", "hash-1", null)));
+
+        assertThatThrownBy(() -> service(1000).enqueueNotification(request(1), "key-1", "hash-2"))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        verify(outboxRepository, never()).append(any());
+    }
+
+    @Test
+    void shouldRouteByPriority() {
+        NotificationRequest otp = request(1);
+        otp.setPriority(Priority.HIGH);
+        NotificationRequest campaign = request(3);
+        campaign.setPriority(Priority.LOW);
+
+        service(2).enqueueNotifications(List.of(otp, request(1), campaign));
+
+        assertThat(appended()).extracting(OutboxEvent::getTopic)
+                .containsExactly("notifications-high", "notifications", "notifications-low", "notifications-low");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldHoldBackScheduledRequests() {
+        NotificationRequest later = request(3);
+        Instant dueAt = Instant.now().plusSeconds(3600);
+        when(scheduler.dueAt(eq(later), any())).thenReturn(dueAt);
+
+        List<String> ids = service(2).enqueueNotifications(List.of(request(1), later));
+
+        assertThat(appended()).extracting(OutboxEvent::getRecordKey).containsExactly(ids.get(0));
+        ArgumentCaptor<List<NotificationScheduler.Schedule>> schedules = ArgumentCaptor.forClass(List.class);
+        verify(scheduler).schedule(schedules.capture());
+        NotificationScheduler.Schedule schedule = schedules.getValue().get(0);
+        assertThat(schedule.notificationId()).isEqualTo(ids.get(1));
+        assertThat(schedule.dueAt()).isEqualTo(dueAt);
+        assertThat(schedule.events()).extracting(OutboxEvent::getRecordKey)
+                .containsExactly(ids.get(1) + ":0", ids.get(1) + ":1");
+
+        ArgumentCaptor<List<NotificationStatusService.NewNotification>> created = ArgumentCaptor.forClass(List.class);
+        verify(statusService).createInitialStatuses(created.capture());
+        assertThat(created.getValue()).extracting(NotificationStatusService.NewNotification::scheduled)
+                .containsExactly(false, true);
+    }
+
+    @Test
+    void shouldCarryOnlyEachChunksRecipientAttributes() throws Exception {
+        NotificationRequest request = request(3);
+        request.setTemplateId("welcome");
+        request.setRecipientAttributes(Map.of("user0", Map.of("name", "Ann"), "user2", Map.of("name", "Cid")));
+        when(templateService.get("welcome")).thenReturn(Optional.of(CompiledTemplate.compile("Hi {{recipient.name}}")));
+
+        service(2).enqueueNotification(request);
+
+        List<OutboxEvent> events = appended();
+        NotificationRequest first = objectMapper.readValue(events.get(0).getPayload(), NotificationRequest.class);
+        NotificationRequest second = objectMapper.readValue(events.get(1).getPayload(), NotificationRequest.class);
+        assertThat(first.getTemplateId()).isEqualTo("welcome");
+        assertThat(first.getRecipientAttributes()).containsOnlyKeys("user0");
+        assertThat(second.getRecipientAttributes()).containsOnlyKeys("user2");
+    }
+
+    @Test
+    void shouldRejectUnknownTemplate() {
+        NotificationRequest request = request(1);
+        request.setTemplateId("missing");
+        when(templateService.get("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service(1000).enqueueNotification(request))
+                .isInstanceOf(InvalidTemplateException.class);
+        assertThat(service(1000).validate(request)).isEqualTo("Unknown template missing");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.notification;
+
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.repository.NotificationStatusRepository;
+import com.example.notification.repository.RecipientOutcomeRepository;
+import com.example.notification.service.NotificationScheduler;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusCache;
+import com.example.notification.service.StatusCounters;
+import com.example.notification.service.StatusWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationStatusServiceTest {
+
+    private final StatusWriteBuffer writeBuffer = mock(StatusWriteBuffer.class);
+    private final StatusCache statusCache = mock(StatusCache.class);
+    private final NotificationStatusService service = new NotificationStatusService(mock(NotificationStatusRepository.class),
+            mock(RecipientOutcomeRepository.class), writeBuffer, mock(StatusCounters.class), statusCache,
+            mock(ApplicationEventPublisher.class));
+
+    private void stored(String aggregate, Map<String, String> channelStatuses) {
+        NotificationStatus row = new NotificationStatus("n1", aggregate, channelStatuses, 2, 1L, null, null, null);
+        when(statusCache.get(eq("n1"), any())).thenReturn(Optional.of(row));
+    }
+
+    @Test
+    void shouldKeepPersistedStatusOfChunkedEnqueuedNotification() {
+        stored("ENQUEUED", Map.of("sms#0", "PENDING", "sms#1", "PENDING"));
+
+        NotificationStatus status = service.getStatus("n1").orElseThrow();
+
+        assertThat(status.getStatus()).isEqualTo("ENQUEUED");
+        assertThat(status.getChannelStatuses()).containsExactly(Map.entry("sms", "PENDING"));
+        assertThat(status.getCompletedChunks()).containsEntry("sms", 0);
+    }
+
+    @Test
+    void shouldKeepPersistedStatusOfChunkedCancelledNotification() {
+        stored(NotificationScheduler.CANCELLED, Map.of("sms#0", "PENDING", "sms#1", "PENDING"));
+
+        assertThat(service.getStatus("n1").orElseThrow().getStatus()).isEqualTo(NotificationScheduler.CANCELLED);
+    }
+
+    @Test
+    void shouldRecomputeAggregateWhenBufferedTransitionsAreOverlaid() {
+        stored("PROCESSING", Map.of("sms#0", "COMPLETED", "sms#1", "PROCESSING"));
+        when(writeBuffer.pendingFor("n1")).thenReturn(Optional.of(Map.of("sms#1", "COMPLETED")));
+
+        NotificationStatus status = service.getStatus("n1").orElseThrow();
+
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+        assertThat(status.getCompletedChunks()).containsEntry("sms", 2);
+    }
+
+    @Test
+    void shouldOverlayBufferedTransitionsOnARowNotYetBackfilled() {
+        NotificationStatus row = new NotificationStatus("n1", "PROCESSING", null, 1, 1L, null, null, null);
+        when(statusCache.get(eq("n1"), any())).thenReturn(Optional.of(row));
+        when(writeBuffer.pendingFor("n1")).thenReturn(Optional.of(Map.of("email", "COMPLETED")));
+
+        NotificationStatus status = service.getStatus("n1").orElseThrow();
+
+        assertThat(status.getChannelStatuses()).containsExactly(Map.entry("email", "COMPLETED"));
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+    }
+}
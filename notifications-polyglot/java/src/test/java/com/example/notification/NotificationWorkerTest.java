@@ -0,0 +1,124 @@
+package com.example.notification;
+
+import com.example.notification.adapter.ChannelAdapter;
+import com.example.notification.adapter.ChannelFactory;
+import com.example.notification.config.PriorityProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.service.DeliveryReportService;
+import com.example.notification.service.NotificationService;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.TemplateService;
+import com.example.notification.worker.ChannelOutcome;
+import com.example.notification.worker.DeliveryLedger;
+import com.example.notification.worker.FanOutDispatcher;
+import com.example.notification.worker.NotificationWorker;
+import com.example.notification.worker.RetryScheduler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationWorkerTest {
+
+    private final NotificationStatusService statusService = mock(NotificationStatusService.class);
+    private final FanOutDispatcher dispatcher = mock(FanOutDispatcher.class);
+    private final DeliveryLedger deliveryLedger = mock(DeliveryLedger.class);
+    private final RetryScheduler retryScheduler = mock(RetryScheduler.class);
+
+    private NotificationWorker worker() {
+        ChannelAdapter email = new ChannelAdapter() {
+            @Override
+            public Set<String> channels() {
+                return Set.of("email");
+            }
+
+            @Override
+            public void send(String recipientId, String message) {
+            }
+        };
+        return new NotificationWorker(new ChannelFactory(List.of(email)), statusService, dispatcher,
+                retryScheduler, mock(DeliveryReportService.class), deliveryLedger, new PriorityProperties(),
+                mock(TemplateService.class));
+    }
+
+    private static ConsumerRecord<String, NotificationRequest> record(String notificationId, long offset) {
+        NotificationRequest request = new NotificationRequest();
+        request.setChannels(List.of("email"));
+        request.setRecipientIds(List.of("u-" + notificationId));
+        request.setMessage("Hello");
+        return new ConsumerRecord<>("notifications", 0, offset, notificationId, request);
+    }
+
+    private static ConsumerRecord<String, NotificationRequest> chunk(String notificationId, int chunk, long offset) {
+        ConsumerRecord<String, NotificationRequest> record = record(notificationId + "#" + chunk, offset);
+        record.value().setMessage("Hello from chunk " + chunk);
+        record.headers().add(NotificationService.NOTIFICATION_ID_HEADER, notificationId.getBytes(StandardCharsets.UTF_8));
+        record.headers().add(NotificationService.CHUNK_INDEX_HEADER, String.valueOf(chunk).getBytes(StandardCharsets.UTF_8));
+        record.headers().add(NotificationService.CHUNK_COUNT_HEADER, "2".getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static ChannelOutcome outcome(String notificationId, int chunk, boolean successful) {
+        ChannelOutcome outcome = mock(ChannelOutcome.class);
+        when(outcome.getNotificationId()).thenReturn(notificationId);
+        when(outcome.getChannel()).thenReturn("email");
+        when(outcome.getChunk()).thenReturn(chunk);
+        when(outcome.getStatusKey()).thenReturn("email#" + chunk);
+        when(outcome.isSuccessful()).thenReturn(successful);
+        return outcome;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDispatchABatchTogetherAndFlushStatusesOnce() {
+        worker().listenBatch(List.of(record("n1", 10), record("n2", 11)));
+
+        ArgumentCaptor<List<FanOutDispatcher.DispatchJob>> jobs = ArgumentCaptor.forClass(List.class);
+        verify(dispatcher, times(1)).dispatchAll(jobs.capture(), any());
+        assertThat(jobs.getValue()).extracting(FanOutDispatcher.DispatchJob::notificationId).containsExactly("n1", "n2");
+        verify(statusService).stageChannelStatus("n1", "email", "PROCESSING");
+        verify(statusService).stageChannelStatus("n2", "email", "PROCESSING");
+        // Checkpoint and flush once for the whole batch, before the container commits its offsets
+        var order = inOrder(dispatcher, deliveryLedger, statusService);
+        order.verify(dispatcher).dispatchAll(any(), any());
+        order.verify(deliveryLedger).checkpoint();
+        order.verify(statusService, times(1)).commitStagedStatuses();
+    }
+
+    @Test
+    void shouldRetryAFailedChunkWithItsOwnJobWhenTwoChunksShareABatch() {
+        ChannelOutcome failed = outcome("n1", 0, false);
+        ChannelOutcome completed = outcome("n1", 1, true);
+        when(dispatcher.dispatchAll(any(), any())).thenAnswer(invocation -> {
+            Consumer<ChannelOutcome> onChannelDone = invocation.getArgument(1);
+            onChannelDone.accept(failed);
+            onChannelDone.accept(completed);
+            return Map.of();
+        });
+        when(retryScheduler.canRetry(0)).thenReturn(true);
+        when(retryScheduler.schedule(any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        worker().listenBatch(List.of(chunk("n1", 0, 10), chunk("n1", 1, 11)));
+
+        verify(retryScheduler).schedule(eq(failed), any(), any(), eq("Hello from chunk 0"), any(), eq(0));
+        verify(statusService).stageChannelStatus("n1", "email#0", "RETRYING");
+        verify(statusService).stageChannelStatus("n1", "email#1", "COMPLETED");
+    }
+}
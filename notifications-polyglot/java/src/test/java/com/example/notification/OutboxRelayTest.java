@@ -0,0 +1,84 @@
+package com.example.notification;
+
+import com.example.notification.config.OutboxProperties;
+import com.example.notification.entity.OutboxEvent;
+import com.example.notification.repository.OutboxRepository;
+import com.example.notification.service.OutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final String PAYLOAD = "{\"channels\":[\"email\"],\"recipientIds\":[\"u1\"],\"message\":\"Hello\"}";
+
+    private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OutboxRelay relay = new OutboxRelay(outboxRepository, kafkaTemplate, new ObjectMapper(), new OutboxProperties());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPublishBatchAndDeleteOnceAcked() {
+        when(outboxRepository.claimBatch(anyInt(), anyLong())).thenReturn(List.of(
+                new OutboxEvent(1L, "notifications", "n1", Map.of(), PAYLOAD, null),
+                new OutboxEvent(2L, "notifications", "n2:1", Map.of("chunk-index", "1"), PAYLOAD, null)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relayBatch()).isEqualTo(2);
+
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(sent.capture());
+        ProducerRecord<String, Object> chunk = sent.getAllValues().get(1);
+        assertThat(chunk.key()).isEqualTo("n2:1");
+        assertThat(new String(chunk.headers().lastHeader("chunk-index").value(), StandardCharsets.UTF_8)).isEqualTo("1");
+        verify(outboxRepository).deleteByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepEventsWhenBrokerRejectsBatch() {
+        when(outboxRepository.claimBatch(anyInt(), anyLong())).thenReturn(List.of(
+                new OutboxEvent(1L, "notifications", "n1", Map.of(), PAYLOAD, null)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(outboxRepository).deleteByIds(List.of());
+        // Released at once instead of waiting out the lease
+        verify(outboxRepository).releaseClaims(List.of(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldQuarantineCorruptPayloadAndPublishTheRest() {
+        when(outboxRepository.claimBatch(anyInt(), anyLong())).thenReturn(List.of(
+                new OutboxEvent(1L, "notifications", "n1", Map.of(), "{\"channels\": 42", null),
+                new OutboxEvent(2L, "notifications", "n2", Map.of(), PAYLOAD, null)));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        verify(outboxRepository).quarantine(eq(1L), anyString());
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        verify(outboxRepository).deleteByIds(List.of(2L));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.notification;
+
+import com.example.notification.config.RetryProperties;
+import com.example.notification.dto.Priority;
+import com.example.notification.dto.RetryRequest;
+import com.example.notification.worker.ChannelOutcome;
+import com.example.notification.worker.RetryScheduler;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RetrySchedulerTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final RetryScheduler scheduler = new RetryScheduler(kafkaTemplate, new RetryProperties());
+
+    private static ChannelOutcome failedOutcome() {
+        ChannelOutcome outcome = mock(ChannelOutcome.class);
+        when(outcome.getNotificationId()).thenReturn("n1");
+        when(outcome.getChannel()).thenReturn("sms");
+        when(outcome.getRetryRecipients()).thenReturn(List.of(new ChannelOutcome.Recipient(7, "u2")));
+        when(outcome.getLastError()).thenReturn("provider timeout");
+        return outcome;
+    }
+
+    @Test
+    void shouldNameOneTopicPerDelayTier() {
+        assertThat(scheduler.retryTopics()).containsExactly(
+                "notifications-retry-1s", "notifications-retry-10s", "notifications-retry-1m", "notifications-retry-10m");
+    }
+
+    @Test
+    void shouldPublishNextAttemptToItsDelayTier() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        long before = System.currentTimeMillis();
+        scheduler.schedule(failedOutcome(), "tenant-a", Priority.HIGH, "Hello", null, 1);
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq("notifications-retry-10s"), eq("n1"), sent.capture());
+        RetryRequest retry = (RetryRequest) sent.getValue();
+        assertThat(retry.getAttempt()).isEqualTo(2);
+        assertThat(retry.getRecipientIds()).containsExactly("u2");
+        assertThat(retry.getRecipientIndexes()).containsExactly(7);
+        assertThat(retry.getTenantId()).isEqualTo("tenant-a");
+        assertThat(retry.getPriority()).isEqualTo(Priority.HIGH);
+        assertThat(retry.getNotBefore()).isGreaterThanOrEqualTo(before + 10_000);
+    }
+
+    @Test
+    void shouldDeadLetterAfterLastTier() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        assertThat(scheduler.canRetry(4)).isFalse();
+        scheduler.schedule(failedOutcome(), null, Priority.NORMAL, "Hello", null, 4);
+
+        ArgumentCaptor<Object> sent = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq("notifications-dlt"), eq("n1"), sent.capture());
+        assertThat(((RetryRequest) sent.getValue()).getLastError()).isEqualTo("provider timeout");
+    }
+
+    @Test
+    void shouldDeadLetterOnFirstFailureWhenRetriesAreDisabled() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+        RetryProperties properties = new RetryProperties();
+        properties.setEnabled(false);
+        RetryScheduler disabled = new RetryScheduler(kafkaTemplate, properties);
+
+        assertThat(disabled.canRetry(0)).isFalse();
+        disabled.schedule(failedOutcome(), null, Priority.NORMAL, "Hello", null, 0);
+
+        verify(kafkaTemplate).send(eq("notifications-dlt"), eq("n1"), any());
+    }
+
+    @Test
+    void shouldOnlyFailWhenRetriesAndDeadLetteringAreDisabled() {
+        RetryProperties properties = new RetryProperties();
+        properties.setEnabled(false);
+        properties.setDeadLetterWhenDisabled(false);
+        RetryScheduler disabled = new RetryScheduler(kafkaTemplate, properties);
+
+        assertThat(disabled.schedule(failedOutcome(), null, Priority.NORMAL, "Hello", null, 0)).isDone();
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+}
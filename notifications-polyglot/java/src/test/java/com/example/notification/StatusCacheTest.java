@@ -0,0 +1,85 @@
+package com.example.notification;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.service.StatusCache;
+import com.example.notification.service.StatusTransitionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class StatusCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatusCache cache = new StatusCache(kafkaTemplate, new StatusProperties(), meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Function<String, Optional<NotificationStatus>> loader(String status, long version) {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.of(new NotificationStatus(id, status, new HashMap<>(Map.of("email", "PENDING", "sms", "PENDING")),
+                    1, version, null, null, null));
+        };
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        cache.get("n1", loader("ENQUEUED", 0));
+        Optional<NotificationStatus> second = cache.get("n1", loader("ENQUEUED", 0));
+
+        assertThat(second).map(NotificationStatus::getStatus).contains("ENQUEUED");
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.counter("notification.status.cache.gets", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("notification.status.cache.gets", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPatchCachedRowOnLocalWrite() {
+        cache.get("n1", loader("ENQUEUED", 0));
+
+        cache.onTransitions(new StatusTransitionEvent(List.of(new ChannelStatusUpdate("n1", "ENQUEUED", "PROCESSING", 1)),
+                Map.of("n1", Map.of("email", "PROCESSING"))));
+        NotificationStatus status = cache.get("n1", loader("ENQUEUED", 0)).orElseThrow();
+
+        assertThat(loads).hasValue(1);
+        assertThat(status.getStatus()).isEqualTo("PROCESSING");
+        assertThat(status.getVersion()).isEqualTo(1);
+        assertThat(status.getChannelStatuses()).containsEntry("email", "PROCESSING").containsEntry("sms", "PENDING");
+        verify(kafkaTemplate).send("notification-status-invalidations", "n1", 1L);
+    }
+
+    @Test
+    void shouldReloadAfterRemoteWrite() {
+        cache.get("n1", loader("ENQUEUED", 0));
+
+        cache.invalidate("n1", 2);
+        NotificationStatus status = cache.get("n1", loader("COMPLETED", 2)).orElseThrow();
+
+        assertThat(loads).hasValue(2);
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void shouldNotCacheRowOlderThanKnownVersion() {
+        cache.invalidate("n1", 3);
+
+        cache.get("n1", loader("PROCESSING", 2));
+        cache.get("n1", loader("COMPLETED", 3));
+
+        assertThat(loads).hasValue(2);
+    }
+}
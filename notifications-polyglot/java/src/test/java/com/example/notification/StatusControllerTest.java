@@ -1,9 +1,13 @@
 package com.example.notification;
 
 import com.example.notification.controller.StatusController;
+import com.example.notification.dto.FailedRecipientsPage;
 import com.example.notification.dto.NotificationMetrics;
 import com.example.notification.entity.NotificationStatus;
+import com.example.notification.service.DeliveryReportService;
+import com.example.notification.service.NotificationScheduler;
 import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusSubscriptionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,11 +16,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,6 +35,15 @@ class StatusControllerTest {
     @MockBean
     private NotificationStatusService statusService;
 
+    @MockBean
+    private DeliveryReportService deliveryReportService;
+
+    @MockBean
+    private StatusSubscriptionService subscriptionService;
+
+    @MockBean
+    private NotificationScheduler scheduler;
+
     @Test
     void shouldGetNotificationStatus() throws Exception {
         NotificationStatus mockStatus = new NotificationStatus();
@@ -77,4 +92,56 @@ class StatusControllerTest {
                 .andExpect(jsonPath("$.data.totalFailed").value(20))
                 .andExpect(jsonPath("$.data.byStatus.COMPLETED").value(80));
     }
+
+    @Test
+    void shouldPageFailedRecipients() throws Exception {
+        FailedRecipientsPage page = new FailedRecipientsPage("test-id", "sms", 1, 2, 5,
+                List.of(new FailedRecipientsPage.FailedRecipient(12, "user12"), new FailedRecipientsPage.FailedRecipient(40, "user40")));
+        when(deliveryReportService.getFailures("test-id", "sms", 1, 2)).thenReturn(Optional.of(page));
+
+        mockMvc.perform(get("/status/test-id/recipients/sms/failures").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalFailed").value(5))
+                .andExpect(jsonPath("$.data.recipients[0].recipientId").value("user12"));
+    }
+
+    @Test
+    void shouldRejectOversizedFailurePage() throws Exception {
+        mockMvc.perform(get("/status/test-id/recipients/sms/failures").param("size", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn404WhenStreamingUnknownNotification() throws Exception {
+        when(subscriptionService.stream("unknown")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/status/unknown/stream"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldCancelScheduledNotification() throws Exception {
+        NotificationStatus cancelled = new NotificationStatus();
+        cancelled.setNotificationId("later-id");
+        cancelled.setStatus("CANCELLED");
+        when(scheduler.cancel("later-id")).thenReturn(true);
+        when(statusService.getStatus("later-id")).thenReturn(Optional.of(cancelled));
+
+        mockMvc.perform(post("/status/later-id/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("CANCELLED"));
+    }
+
+    @Test
+    void shouldRejectCancelOfDispatchedNotification() throws Exception {
+        NotificationStatus dispatched = new NotificationStatus();
+        dispatched.setNotificationId("test-id");
+        dispatched.setStatus("PROCESSING");
+        when(scheduler.cancel("test-id")).thenReturn(false);
+        when(statusService.getStatus("test-id")).thenReturn(Optional.of(dispatched));
+
+        mockMvc.perform(post("/status/test-id/cancel"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.notification;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.StatusCounter;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.repository.NotificationStatusRepository;
+import com.example.notification.repository.StatusCounterRepository;
+import com.example.notification.service.StatusCounters;
+import com.example.notification.service.StatusTransitionEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatusCountersTest {
+
+    private final StatusCounterRepository counterRepository = mock(StatusCounterRepository.class);
+    private final StatusCounters counters = new StatusCounters(counterRepository, mock(NotificationStatusRepository.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), new StatusProperties());
+
+    @Test
+    void shouldMoveCountsBetweenStatusesOnTransition() {
+        counters.onTransitions(new StatusTransitionEvent(List.of(
+                new ChannelStatusUpdate("n1", null, "ENQUEUED", 0),
+                new ChannelStatusUpdate("n2", null, "ENQUEUED", 0))));
+        counters.onTransitions(new StatusTransitionEvent(List.of(
+                new ChannelStatusUpdate("n1", "ENQUEUED", "PROCESSING", 1),
+                new ChannelStatusUpdate("n1", "PROCESSING", "COMPLETED", 2),
+                new ChannelStatusUpdate("n2", "ENQUEUED", "ENQUEUED", 1))));
+
+        assertThat(counters.snapshot())
+                .containsEntry("ENQUEUED", 1L)
+                .containsEntry("COMPLETED", 1L)
+                .doesNotContainKey("PROCESSING");
+    }
+
+    @Test
+    void shouldSeedEmptyCountersAtStartupWithoutReconcile() {
+        when(counterRepository.findAll()).thenReturn(List.of(), List.of(new StatusCounter("COMPLETED", 42)));
+        when(counterRepository.seedIfEmpty()).thenReturn(1);
+
+        counters.initialize();
+
+        verify(counterRepository).seedIfEmpty();
+        assertThat(counters.snapshot()).containsEntry("COMPLETED", 42L);
+    }
+
+    @Test
+    void shouldNotSeedCountersThatAlreadyExist() {
+        when(counterRepository.findAll()).thenReturn(List.of(new StatusCounter("COMPLETED", 42)));
+
+        counters.initialize();
+
+        verify(counterRepository, never()).seedIfEmpty();
+    }
+}
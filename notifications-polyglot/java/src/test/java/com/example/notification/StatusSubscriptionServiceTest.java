@@ -0,0 +1,108 @@
+package com.example.notification;
+
+import com.example.notification.common.ApiResponse;
+import com.example.notification.config.StatusProperties;
+import com.example.notification.entity.NotificationStatus;
+import com.example.notification.exception.SubscriptionLimitException;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.service.NotificationStatusService;
+import com.example.notification.service.StatusCache;
+import com.example.notification.service.StatusSubscriptionService;
+import com.example.notification.service.StatusTransitionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatusSubscriptionServiceTest {
+
+    private final NotificationStatusService statusService = mock(NotificationStatusService.class);
+    private final StatusCache statusCache = mock(StatusCache.class);
+    private final StatusProperties properties = new StatusProperties();
+    private final StatusSubscriptionService service =
+            new StatusSubscriptionService(statusService, statusCache, properties, new SimpleMeterRegistry());
+
+    private static NotificationStatus status(String aggregate, long version) {
+        return new NotificationStatus("n1", aggregate, Map.of("email", aggregate), 1, version, null, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<ApiResponse<NotificationStatus>> awaitResult(
+            DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result) throws InterruptedException {
+        for (int i = 0; i < 100 && !result.hasResult(); i++) {
+            Thread.sleep(10);
+        }
+        return (ResponseEntity<ApiResponse<NotificationStatus>>) result.getResult();
+    }
+
+    @Test
+    void shouldAnswerPollImmediatelyWhenVersionIsNewer() throws Exception {
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("PROCESSING", 2)));
+
+        DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result = service.poll("n1", 1, 1000).orElseThrow();
+
+        assertThat(result.hasResult()).isTrue();
+        assertThat(awaitResult(result).getBody().getData().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCompletePollOnTransition() throws Exception {
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("PROCESSING", 2)));
+        DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result = service.poll("n1", 2, 1000).orElseThrow();
+        assertThat(result.hasResult()).isFalse();
+
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("COMPLETED", 3)));
+        service.onTransitions(new StatusTransitionEvent(List.of(new ChannelStatusUpdate("n1", "PROCESSING", "COMPLETED", 3))));
+
+        ResponseEntity<ApiResponse<NotificationStatus>> response = awaitResult(result);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getData().getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void shouldInvalidateCachedRowBeforePushingRemoteWrite() throws Exception {
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("PROCESSING", 2)));
+        DeferredResult<ResponseEntity<ApiResponse<NotificationStatus>>> result = service.poll("n1", 2, 1000).orElseThrow();
+
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("COMPLETED", 3)));
+        service.onRemoteWrite(new ConsumerRecord<>("notification-status-invalidations", 0, 0, "n1", 3L));
+
+        assertThat(awaitResult(result).getBody().getData().getStatus()).isEqualTo("COMPLETED");
+        InOrder order = inOrder(statusCache, statusService);
+        order.verify(statusCache).invalidate("n1", 3L);
+        order.verify(statusService).getStatus("n1");
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownNotification() {
+        when(statusService.getStatus("n1")).thenReturn(Optional.empty());
+
+        assertThat(service.poll("n1", 0, 1000)).isEmpty();
+        assertThat(service.stream("n1")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectSubscriptionsBeyondLimit() {
+        properties.getSubscriptions().setMaxOpen(1);
+        StatusSubscriptionService limited = new StatusSubscriptionService(statusService, statusCache, properties,
+                new SimpleMeterRegistry());
+        when(statusService.getStatus("n1")).thenReturn(Optional.of(status("PROCESSING", 2)));
+
+        limited.poll("n1", 2, 1000);
+
+        assertThatThrownBy(() -> limited.poll("n1", 2, 1000)).isInstanceOf(SubscriptionLimitException.class);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.notification;
+
+import com.example.notification.config.StatusProperties;
+import com.example.notification.repository.ChannelStatusUpdate;
+import com.example.notification.repository.NotificationStatusRepository;
+import com.example.notification.service.StatusTransitionEvent;
+import com.example.notification.service.StatusWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatusWriteBufferTest {
+
+    private final NotificationStatusRepository repository = mock(NotificationStatusRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private StatusWriteBuffer buffer(StatusProperties.DurabilityMode mode, int maxPending) {
+        StatusProperties properties = new StatusProperties();
+        properties.getWriteBehind().setMode(mode);
+        properties.getWriteBehind().setMaxPending(maxPending);
+        return new StatusWriteBuffer(repository, eventPublisher, properties);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCoalesceTransitionsPerNotificationAndChannel() {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK, 100);
+
+        buffer.record("n1", "email", "PROCESSING");
+        buffer.record("n1", "sms", "PROCESSING");
+        buffer.record("n1", "email", "COMPLETED");
+        buffer.awaitDurable();
+
+        ArgumentCaptor<Map<String, Map<String, String>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(repository).mergeChannelStatuses(captor.capture());
+        assertThat(captor.getValue()).containsOnlyKeys("n1");
+        assertThat(captor.getValue().get("n1")).containsEntry("email", "COMPLETED").containsEntry("sms", "PROCESSING");
+        assertThat(buffer.pendingFor("n1")).isEmpty();
+    }
+
+    @Test
+    void shouldLeaveFlushingToTriggersInAsyncMode() {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.ASYNC, 2);
+
+        buffer.record("n1", "email", "COMPLETED");
+        buffer.awaitDurable();
+        verify(repository, never()).mergeChannelStatuses(any());
+        assertThat(buffer.pendingFor("n1")).contains(Map.of("email", "COMPLETED"));
+
+        buffer.record("n2", "push", "COMPLETED");
+        verify(repository, times(1)).mergeChannelStatuses(any());
+    }
+
+    @Test
+    void shouldKeepTransitionsWhenFlushFails() {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK, 100);
+        doThrow(new IllegalStateException("db down")).when(repository).mergeChannelStatuses(any());
+
+        buffer.record("n1", "email", "COMPLETED");
+        assertThatThrownBy(buffer::awaitDurable).isInstanceOf(IllegalStateException.class);
+
+        assertThat(buffer.pendingFor("n1")).contains(Map.of("email", "COMPLETED"));
+    }
+
+    @Test
+    void shouldDropBufferedTransitionSupersededByWriteThrough() {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK, 100);
+
+        buffer.record("n1", "email", "PROCESSING");
+        buffer.record("n1", "sms", "PROCESSING");
+        String result = buffer.writeThrough("n1", "email", () -> "PROCESSING");
+
+        assertThat(result).isEqualTo("PROCESSING");
+        assertThat(buffer.pendingFor("n1")).contains(Map.of("sms", "PROCESSING"));
+    }
+
+    @Test
+    void shouldPublishAggregateTransitionsAfterFlush() {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK, 100);
+        List<ChannelStatusUpdate> updates = List.of(new ChannelStatusUpdate("n1", "ENQUEUED", "PROCESSING", 1));
+        when(repository.mergeChannelStatuses(any())).thenReturn(updates);
+
+        buffer.record("n1", "email", "PROCESSING");
+        buffer.awaitDurable();
+
+        verify(eventPublisher).publishEvent(new StatusTransitionEvent(updates, Map.of("n1", Map.of("email", "PROCESSING"))));
+    }
+
+    @Test
+    void shouldNotHoldUpWriteThroughsOfOtherNotifications() throws Exception {
+        StatusWriteBuffer buffer = buffer(StatusProperties.DurabilityMode.FLUSH_BEFORE_ACK, 100);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> buffer.writeThrough("n1", "email", () -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "n1";
+        }));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // n2 hashes to another stripe than n1
+        CompletableFuture<String> other = CompletableFuture.supplyAsync(() -> buffer.writeThrough("n2", "email", () -> "n2"));
+        assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("n2");
+
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("n1");
+    }
+}
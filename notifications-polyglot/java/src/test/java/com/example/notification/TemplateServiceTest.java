@@ -0,0 +1,96 @@
+package com.example.notification;
+
+import com.example.notification.config.TemplateProperties;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.entity.MessageTemplate;
+import com.example.notification.exception.InvalidTemplateException;
+import com.example.notification.exception.TemplateConflictException;
+import com.example.notification.repository.MessageTemplateRepository;
+import com.example.notification.service.CompiledTemplate;
+import com.example.notification.service.TemplateService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TemplateServiceTest {
+
+    private final MessageTemplateRepository repository = mock(MessageTemplateRepository.class);
+    private final TemplateService service = new TemplateService(repository, new TemplateProperties());
+
+    private void stored(String id, String body) {
+        when(repository.findById(id)).thenReturn(Optional.of(new MessageTemplate(id, body, LocalDateTime.now())));
+    }
+
+    @Test
+    void shouldRenderMetadataAndRecipientVariables() {
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{ recipient.name }}, {{count}} new for {{recipient.id}}{{missing}}!");
+        StringBuilder buffer = new StringBuilder();
+
+        assertThat(template.isPersonalized()).isTrue();
+        assertThat(template.render(buffer, Map.of("count", 3), "u1", Map.of("name", "Ann")))
+                .isEqualTo("Hi Ann, 3 new for u1!");
+        assertThat(template.render(buffer, Map.of("count", 5), "u2", null))
+                .isEqualTo("Hi , 5 new for u2!");
+    }
+
+    @Test
+    void shouldRejectMalformedTemplates() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("Hi {{name")).isInstanceOf(InvalidTemplateException.class);
+        assertThatThrownBy(() -> CompiledTemplate.compile("Hi {{ }}")).isInstanceOf(InvalidTemplateException.class);
+        assertThatThrownBy(() -> service.register("bad", "{{a b}}")).isInstanceOf(InvalidTemplateException.class);
+        verify(repository, never()).insertIfAbsent(anyString(), anyString());
+    }
+
+    @Test
+    void shouldRegisterOnceAndRejectADifferentBody() {
+        when(repository.insertIfAbsent("welcome", "Hi {{name}}")).thenReturn(1, 0);
+        when(repository.insertIfAbsent("welcome", "Hello {{name}}")).thenReturn(0);
+        stored("welcome", "Hi {{name}}");
+
+        assertThat(service.register("welcome", "Hi {{name}}")).isTrue();
+        assertThat(service.register("welcome", "Hi {{name}}")).isFalse();
+        assertThatThrownBy(() -> service.register("welcome", "Hello {{name}}")).isInstanceOf(TemplateConflictException.class);
+    }
+
+    @Test
+    void shouldRenderSharedTextOnceAndPersonalizedTextPerRecipient() {
+        stored("digest", "{{count}} updates");
+        stored("greeting", "Hi {{recipient.name}}");
+        NotificationRequest request = new NotificationRequest();
+        request.setRecipientIds(List.of("u1", "u2"));
+        request.setMetadata(Map.of("count", 2));
+        request.setRecipientAttributes(Map.of("u1", Map.of("name", "Ann"), "u2", Map.of("name", "Bob")));
+
+        request.setTemplateId("digest");
+        TemplateService.Rendered shared = service.render(request).orElseThrow();
+        request.setTemplateId("greeting");
+        TemplateService.Rendered personal = service.render(request).orElseThrow();
+
+        assertThat(shared).isEqualTo(new TemplateService.Rendered("2 updates", null));
+        assertThat(personal.messages()).containsExactly("Hi Ann", "Hi Bob");
+        // Compiled once, then served from the cache
+        service.render(request);
+        verify(repository, times(1)).findById("greeting");
+    }
+
+    @Test
+    void shouldNotCacheMissingTemplates() {
+        when(repository.findById("later")).thenReturn(Optional.empty());
+        assertThat(service.get("later")).isEmpty();
+
+        stored("later", "Now");
+        assertThat(service.get("later")).isPresent();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.notification;
+
+import com.example.notification.service.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void shouldExpireEachEntryOnTheTickOfItsDeadline() {
+        // 10ms ticks and 8 slots: level 0 covers 80ms, level 1 640ms, level 2 5.12s
+        TimingWheel wheel = new TimingWheel(10, 8, START);
+        long[] delays = {5, 10, 75, 80, 81, 639, 640, 4_999, 60_000};
+        for (long delay : delays) {
+            wheel.add("n" + delay, START + delay);
+        }
+
+        List<String> order = new ArrayList<>();
+        for (long now = START; now <= START + 60_000; now += 10) {
+            for (String id : wheel.advance(now)) {
+                long delay = Long.parseLong(id.substring(1));
+                // Never early, and at most one tick late
+                assertThat(now).isBetween(START + delay, START + delay + 10);
+                order.add(id);
+            }
+        }
+
+        assertThat(order).containsExactly("n5", "n10", "n75", "n80", "n81", "n639", "n640", "n4999", "n60000");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldCancelAndRejectDuplicates() {
+        TimingWheel wheel = new TimingWheel(10, 8, START);
+
+        assertThat(wheel.add("a", START + 500)).isTrue();
+        assertThat(wheel.add("a", START + 20)).isFalse();
+        assertThat(wheel.add("b", START + 500)).isTrue();
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.cancel("a")).isFalse();
+
+        assertThat(wheel.advance(START + 490)).isEmpty();
+        assertThat(wheel.advance(START + 500)).containsExactly("b");
+        assertThat(wheel.contains("a")).isFalse();
+    }
+
+    @Test
+    void shouldFireOverdueEntriesOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(10, 8, START);
+        wheel.advance(START + 1_000);
+
+        wheel.add("late", START);
+
+        assertThat(wheel.advance(START + 1_000)).containsExactly("late");
+    }
+}
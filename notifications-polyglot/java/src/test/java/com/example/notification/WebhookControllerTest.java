@@ -1,6 +1,7 @@
 package com.example.notification;
 
 import com.example.notification.controller.WebhookController;
+import com.example.notification.exception.ChunkedCallbackException;
 import com.example.notification.service.NotificationStatusService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -12,8 +13,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -45,9 +49,10 @@ class WebhookControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true));
 
-        verify(statusService).updateChannelStatus(
+        verify(statusService).applyCallback(
                 eq("test-id"),
                 eq("email"),
+                isNull(),
                 eq("COMPLETED")
         );
     }
@@ -67,10 +72,45 @@ class WebhookControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true));
 
-        verify(statusService).updateChannelStatus(
+        verify(statusService).applyCallback(
                 eq("test-id-2"),
                 eq("sms"),
+                isNull(),
                 eq("FAILED")
         );
     }
+
+    @Test
+    void shouldPassTheChunkOfAChunkedNotification() throws Exception {
+        String json = objectMapper.writeValueAsString(Map.of(
+            "notification_id", "test-id-3",
+            "channel", "email",
+            "chunk", 2,
+            "status", "COMPLETED"
+        ));
+
+        mockMvc.perform(post("/webhook/callback")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isOk());
+
+        verify(statusService).applyCallback(eq("test-id-3"), eq("email"), eq(2), eq("COMPLETED"));
+    }
+
+    @Test
+    void shouldRejectACallbackWithoutTheChunkOfAChunkedNotification() throws Exception {
+        when(statusService.applyCallback(eq("test-id-4"), eq("email"), isNull(), any()))
+                .thenThrow(new ChunkedCallbackException("test-id-4", 3));
+        String json = objectMapper.writeValueAsString(Map.of(
+            "notification_id", "test-id-4",
+            "channel", "email",
+            "status", "COMPLETED"
+        ));
+
+        mockMvc.perform(post("/webhook/callback")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+    }
 }